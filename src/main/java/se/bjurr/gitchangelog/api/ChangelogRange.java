@@ -0,0 +1,80 @@
+package se.bjurr.gitchangelog.api;
+
+import static com.google.common.base.Optional.fromNullable;
+import static com.google.common.base.Strings.emptyToNull;
+
+import com.google.common.base.Optional;
+
+/**
+ * From and to of one changelog, when several are created with {@link
+ * GitChangelogApi#getChangelogs(java.util.List, boolean)} or {@link
+ * GitChangelogApi#render(java.util.List)}. If from is not given, it is the {@link
+ * GitChangelogApiConstants#ZERO_COMMIT}. If to is not given, it is {@link
+ * GitChangelogApiConstants#REF_MASTER}.
+ */
+public class ChangelogRange {
+
+	public static ChangelogRange changelogRange() {
+		return new ChangelogRange();
+	}
+
+	private String fromRef;
+	private String fromCommit;
+	private String toRef;
+	private String toCommit;
+
+	private ChangelogRange() {}
+
+	/** Include all commits from here. Any commit hash. */
+	public ChangelogRange withFromCommit(final String fromCommit) {
+		this.fromCommit = fromCommit;
+		return this;
+	}
+
+	/** Include all commits from here. Any tag or branch name. */
+	public ChangelogRange withFromRef(final String fromRef) {
+		this.fromRef = fromRef;
+		return this;
+	}
+
+	/** Include all commits to here. Any commit hash. */
+	public ChangelogRange withToCommit(final String toCommit) {
+		this.toCommit = toCommit;
+		return this;
+	}
+
+	/** Include all commits to here. Any tag or branch name. */
+	public ChangelogRange withToRef(final String toRef) {
+		this.toRef = toRef;
+		return this;
+	}
+
+	public Optional<String> getFromCommit() {
+		return fromNullable(emptyToNull(this.fromCommit));
+	}
+
+	public Optional<String> getFromRef() {
+		return fromNullable(emptyToNull(this.fromRef));
+	}
+
+	public Optional<String> getToCommit() {
+		return fromNullable(emptyToNull(this.toCommit));
+	}
+
+	public Optional<String> getToRef() {
+		return fromNullable(emptyToNull(this.toRef));
+	}
+
+	@Override
+	public String toString() {
+		return "ChangelogRange [fromRef="
+				+ this.fromRef
+				+ ", fromCommit="
+				+ this.fromCommit
+				+ ", toRef="
+				+ this.toRef
+				+ ", toCommit="
+				+ this.toCommit
+				+ "]";
+	}
+}
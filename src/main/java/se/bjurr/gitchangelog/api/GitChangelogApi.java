@@ -4,55 +4,57 @@ import static com.google.common.base.Charsets.UTF_8;
 import static com.google.common.base.Optional.absent;
 import static com.google.common.base.Optional.of;
 import static com.google.common.base.Preconditions.checkArgument;
-import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.io.Files.createParentDirs;
 import static com.google.common.io.Files.write;
-import static com.google.common.io.Resources.getResource;
 import static se.bjurr.gitchangelog.api.GitChangelogApiConstants.REF_MASTER;
 import static se.bjurr.gitchangelog.api.GitChangelogApiConstants.ZERO_COMMIT;
 import static se.bjurr.gitchangelog.internal.git.GitRepoDataHelper.removeCommitsWithoutIssue;
+import static se.bjurr.gitchangelog.internal.git.GitRepoPool.gitRepoPool;
 import static se.bjurr.gitchangelog.internal.settings.Settings.fromFile;
 import static se.bjurr.gitchangelog.internal.settings.SettingsIssueType.NOISSUE;
+import static se.bjurr.gitchangelog.internal.templates.TemplateCache.templateCache;
 
 import java.io.File;
 import java.io.IOException;
-import java.io.StringReader;
+import java.io.OutputStreamWriter;
 import java.io.StringWriter;
 import java.io.Writer;
 import java.net.URL;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
-import com.github.mustachejava.DefaultMustacheFactory;
 import com.github.mustachejava.Mustache;
-import com.github.mustachejava.MustacheFactory;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Optional;
-import com.google.common.io.Files;
-import com.google.common.io.Resources;
 import org.eclipse.jgit.lib.ObjectId;
 import se.bjurr.gitchangelog.api.exceptions.GitChangelogIntegrationException;
 import se.bjurr.gitchangelog.api.exceptions.GitChangelogRepositoryException;
 import se.bjurr.gitchangelog.api.model.Changelog;
 import se.bjurr.gitchangelog.api.model.Issue;
+import se.bjurr.gitchangelog.internal.common.AtomicFiles;
 import se.bjurr.gitchangelog.internal.git.GitRepo;
 import se.bjurr.gitchangelog.internal.git.GitRepoData;
 import se.bjurr.gitchangelog.internal.git.model.GitCommit;
 import se.bjurr.gitchangelog.internal.git.model.GitTag;
+import se.bjurr.gitchangelog.internal.integrations.cache.IssueCache;
 import se.bjurr.gitchangelog.internal.integrations.mediawiki.MediaWikiClient;
 import se.bjurr.gitchangelog.internal.issues.IssueParser;
 import se.bjurr.gitchangelog.internal.issues.MergeRequestParser;
 import se.bjurr.gitchangelog.internal.model.ParsedIssue;
 import se.bjurr.gitchangelog.internal.model.ParsedMergeRequest;
+import se.bjurr.gitchangelog.internal.model.StreamedChangelog;
 import se.bjurr.gitchangelog.internal.model.Transformer;
 import se.bjurr.gitchangelog.internal.settings.Settings;
 import se.bjurr.gitchangelog.internal.settings.SettingsIssue;
 import se.bjurr.gitchangelog.internal.settings.SettingsIssueType;
+import se.bjurr.gitchangelog.internal.settings.SettingsPatterns;
+import se.bjurr.gitchangelog.internal.templates.CompiledTemplate;
 
 public class GitChangelogApi {
 
@@ -82,8 +84,62 @@ public class GitChangelogApi {
 	 */
 	public Changelog getChangelog(final boolean useIntegrationIfConfigured)
 																			throws GitChangelogRepositoryException {
-		try (GitRepo gitRepo = new GitRepo(new File(this.settings.getFromRepo()))) {
-			return getChangelog(gitRepo, useIntegrationIfConfigured);
+		try (GitRepo gitRepo = newGitRepo()) {
+			return getStreamedChangelog(gitRepo, useIntegrationIfConfigured).toChangelog();
+		} catch (final IOException e) {
+			throw new GitChangelogRepositoryException("", e);
+		}
+	}
+
+	/**
+	 * Get the changelog, as data object, of each range. The repository is opened once for all of
+	 * them. The first commit, the tags and the commits are then only resolved, and parsed, once.
+	 * The commits of ranges to the same commit are mapped to tags in one walk, and each issue is
+	 * only fetched once from the integrations. Each changelog is the same as
+	 * {@link #getChangelog(boolean)} would give for its range.
+	 *
+	 * @param useIntegrationIfConfigured
+	 *            true if title/link/labels/issueType should be fetched from
+	 *            integrations (GitHub, GitLab, Jira) if that is configured.
+	 * @throws GitChangelogRepositoryException
+	 */
+	public List<Changelog> getChangelogs(
+		final List<ChangelogRange> ranges, final boolean useIntegrationIfConfigured)
+		throws GitChangelogRepositoryException {
+		try (GitRepo gitRepo = newGitRepo()) {
+			final List<ObjectId> fromIds = new ArrayList<>();
+			final List<ObjectId> toIds = new ArrayList<>();
+			for (final ChangelogRange range : ranges) {
+				fromIds.add(getFromId(gitRepo, range.getFromRef(), range.getFromCommit()));
+				toIds.add(getToId(gitRepo, range.getToRef(), range.getToCommit()));
+			}
+			final GitRepoData[] gitRepoData = new GitRepoData[ranges.size()];
+			for (final ObjectId toId : new LinkedHashSet<>(toIds)) {
+				final List<Integer> rangesWithTo = new ArrayList<>();
+				final List<ObjectId> froms = new ArrayList<>();
+				for (int i = 0; i < toIds.size(); i++) {
+					if (toIds.get(i).equals(toId)) {
+						rangesWithTo.add(i);
+						froms.add(fromIds.get(i));
+					}
+				}
+				final List<GitRepoData> gitRepoDataWithTo =
+					gitRepo.getGitRepoData(
+						froms,
+						toId,
+						this.settings.getUntaggedName(),
+						this.settings.getIgnoreTagsIfNameMatches());
+				for (int i = 0; i < rangesWithTo.size(); i++) {
+					gitRepoData[rangesWithTo.get(i)] = gitRepoDataWithTo.get(i);
+				}
+			}
+			final IssueCache issueCache = new IssueCache(this.settings);
+			final List<Changelog> changelogs = new ArrayList<>();
+			for (final GitRepoData data : gitRepoData) {
+				changelogs.add(
+					getStreamedChangelog(data, useIntegrationIfConfigured, issueCache).toChangelog());
+			}
+			return changelogs;
 		} catch (final IOException e) {
 			throw new GitChangelogRepositoryException("", e);
 		}
@@ -93,29 +149,54 @@ public class GitChangelogApi {
 		return this.settings;
 	}
 
+	/** A copy, with its own settings, that can be used at the same time as this. */
+	GitChangelogApi copy() {
+		final GitChangelogApi copy = new GitChangelogApi(this.settings.copy());
+		copy.templateContent = this.templateContent;
+		return copy;
+	}
+
 	/**
 	 * Get the changelog.
 	 *
 	 * @throws GitChangelogRepositoryException
 	 */
 	public void render(final Writer writer) throws GitChangelogRepositoryException {
-		final MustacheFactory mf = new DefaultMustacheFactory();
-		final String templateContent = checkNotNull(getTemplateContent(), "No template!");
-		final StringReader reader = new StringReader(templateContent);
-		final Mustache mustache = mf.compile(reader, this.settings.getTemplatePath());
-		try {
-			final boolean useIntegrationIfConfigured = shouldUseIntegrationIfConfigured(templateContent);
-			final Changelog changelog = this.getChangelog(useIntegrationIfConfigured);
-			mustache
-					.execute(
-								writer, //
-								new Object[]{changelog, this.settings.getExtendedVariables()} //
-					)
-					.flush();
-		} catch (final IOException e) {
-			// Should be impossible!
-			throw new GitChangelogRepositoryException("", e);
+		final CompiledTemplate template = getTemplate();
+		final Mustache mustache = template.getMustache();
+		final boolean useIntegrationIfConfigured =
+			shouldUseIntegrationIfConfigured(template.getContent());
+		if (this.settings.useStreamingRender()) {
+			try (GitRepo gitRepo = newGitRepo()) {
+				render(mustache, getStreamedChangelog(gitRepo, useIntegrationIfConfigured), writer);
+			} catch (final IOException e) {
+				throw new GitChangelogRepositoryException("", e);
+			}
+			return;
 		}
+		final Changelog changelog = this.getChangelog(useIntegrationIfConfigured);
+		render(mustache, changelog, writer);
+	}
+
+	/**
+	 * Get the changelog of each range, rendered with the same template. See
+	 * {@link #getChangelogs(List, boolean)}.
+	 *
+	 * @throws GitChangelogRepositoryException
+	 */
+	public List<String> render(final List<ChangelogRange> ranges)
+		throws GitChangelogRepositoryException {
+		final CompiledTemplate template = getTemplate();
+		final Mustache mustache = template.getMustache();
+		final boolean useIntegrationIfConfigured =
+			shouldUseIntegrationIfConfigured(template.getContent());
+		final List<String> rendered = new ArrayList<>();
+		for (final Changelog changelog : getChangelogs(ranges, useIntegrationIfConfigured)) {
+			final Writer writer = new StringWriter();
+			render(mustache, changelog, writer);
+			rendered.add(writer.toString());
+		}
+		return rendered;
 	}
 
 	@VisibleForTesting
@@ -141,6 +222,16 @@ public class GitChangelogApi {
 	 */
 	public void toFile(final File file) throws GitChangelogRepositoryException, IOException {
 		createParentDirs(file);
+		if (this.settings.useStreamingRender()) {
+			AtomicFiles.write(
+				file,
+				outputStream -> {
+					try (Writer writer = new OutputStreamWriter(outputStream, UTF_8)) {
+						render(writer);
+					}
+				});
+			return;
+		}
 		write(render().getBytes("UTF-8"), file);
 	}
 
@@ -235,6 +326,29 @@ public class GitChangelogApi {
 		return this;
 	}
 
+	/**
+	 * Number of pages of GitHub issues to get at the same time, when all issues are needed. GitHub
+	 * rate limits are respected, requests wait when there are no requests left. Default is {@link
+	 * GitChangelogApiConstants#DEFAULT_GITHUB_PAGES_IN_PARALLEL}.
+	 */
+	public GitChangelogApi withGitHubPagesInParallel(final int gitHubPagesInParallel) {
+		this.settings.setGitHubPagesInParallel(gitHubPagesInParallel);
+		return this;
+	}
+
+	/**
+	 * HTTP cache of GitHub responses. Changelogs with the same folder share the cache. Default is
+	 * {@link GitChangelogApiConstants#DEFAULT_GITHUB_CACHE_DIRECTORY} and {@link
+	 * GitChangelogApiConstants#DEFAULT_GITHUB_CACHE_SIZE}.
+	 *
+	 * @param maxSize In bytes, nothing is cached with 0.
+	 */
+	public GitChangelogApi withGitHubCache(final String directory, final long maxSize) {
+		this.settings.setGitHubCacheDirectory(directory);
+		this.settings.setGitHubCacheSize(maxSize);
+		return this;
+	}
+
 	/** Pattern to recognize GitHub:s. <code>#([0-9]+)</code> */
 	public GitChangelogApi withGitLabIssuePattern(final String gitLabIssuePattern) {
 		this.settings.setGitLabIssuePattern(gitLabIssuePattern);
@@ -305,6 +419,137 @@ public class GitChangelogApi {
 		return this;
 	}
 
+	/**
+	 * Keep an index in <code>.git/changelog-index</code>. When rendering the same changelog again,
+	 * it is read from the index if no tag was moved and from/to are the same commits. Otherwise
+	 * only commits that are not already in the index are parsed.
+	 */
+	public GitChangelogApi withChangelogIndex(final boolean useChangelogIndex) {
+		this.settings.setUseChangelogIndex(useChangelogIndex);
+		return this;
+	}
+
+	/**
+	 * Keep the repository open when the changelog is done, so that it does not have to be opened
+	 * again for the next changelog of the same repository. A few repositories, not used for a while,
+	 * are kept in a pool that is shared by all {@link GitChangelogApi}s. Use
+	 * {@link #closeGitRepoPool()} when they are no longer needed.
+	 */
+	public GitChangelogApi withGitRepoPool(final boolean useGitRepoPool) {
+		this.settings.setUseGitRepoPool(useGitRepoPool);
+		return this;
+	}
+
+	/**
+	 * Close the repositories kept open by {@link #withGitRepoPool(boolean)}, that are not in use.
+	 * Those in use are closed when they are done. Repositories not used for a while are otherwise only
+	 * closed when the pool is used again.
+	 */
+	public static void closeGitRepoPool() {
+		gitRepoPool().clear();
+	}
+
+	/**
+	 * Render the tags one at a time, and write each of them before the next one is created. The
+	 * commits, tags and issues are still all found, and fetched from integrations, before the first
+	 * tag is rendered. What is done one tag at a time is creating the
+	 * {@link se.bjurr.gitchangelog.api.model.Tag}s, with their commits, issues and authors. Only a
+	 * template that uses <code>commits</code>, <code>issues</code> or <code>authors</code> of the
+	 * whole changelog will have them all created.
+	 * When rendering to a file, it is written to a temporary file while rendering, that then
+	 * replaces the file.
+	 */
+	public GitChangelogApi withStreamingRender(final boolean useStreamingRender) {
+		this.settings.setUseStreamingRender(useStreamingRender);
+		return this;
+	}
+
+	/**
+	 * Match commits against the issue patterns in parallel, on the common fork-join pool, and get
+	 * each issue from GitHub, GitLab or Jira in parallel, on threads of its own. See {@link
+	 * #withIssueLookupsInParallel(int)}. Every issue is still only fetched once, and the changelog is
+	 * the same as without this.
+	 */
+	public GitChangelogApi withParallelIssueParsing(final boolean useParallelIssueParsing) {
+		this.settings.setUseParallelIssueParsing(useParallelIssueParsing);
+		return this;
+	}
+
+	/**
+	 * Number of issues to get from GitHub, GitLab or Jira at the same time, with {@link
+	 * #withParallelIssueParsing(boolean)}. Default is {@link
+	 * GitChangelogApiConstants#DEFAULT_ISSUE_LOOKUPS_IN_PARALLEL}.
+	 */
+	public GitChangelogApi withIssueLookupsInParallel(final int issueLookupsInParallel) {
+		this.settings.setIssueLookupsInParallel(issueLookupsInParallel);
+		return this;
+	}
+
+	/**
+	 * Keep issues, fetched from JIRA, GitHub and GitLab, in this folder between runs. A kept issue is
+	 * not fetched again until its time to live, {@link #withJiraCacheTtlMinutes(int)} and so on, has
+	 * passed.
+	 */
+	public GitChangelogApi withIntegrationCache(final String directory) {
+		this.settings.setIntegrationCacheDirectory(directory);
+		return this;
+	}
+
+	/**
+	 * Max number of issues, per integration, to keep in the {@link #withIntegrationCache(String)}.
+	 * Default is {@link GitChangelogApiConstants#DEFAULT_INTEGRATION_CACHE_MAX_ENTRIES}.
+	 */
+	public GitChangelogApi withIntegrationCacheMaxEntries(final int maxEntries) {
+		this.settings.setIntegrationCacheMaxEntries(maxEntries);
+		return this;
+	}
+
+	/**
+	 * Minutes to keep a JIRA issue in the {@link #withIntegrationCache(String)}. Default is {@link
+	 * GitChangelogApiConstants#DEFAULT_INTEGRATION_CACHE_TTL_MINUTES}.
+	 */
+	public GitChangelogApi withJiraCacheTtlMinutes(final int minutes) {
+		this.settings.setJiraCacheTtlMinutes(minutes);
+		return this;
+	}
+
+	/**
+	 * Minutes to keep a GitHub issue in the {@link #withIntegrationCache(String)}. Default is {@link
+	 * GitChangelogApiConstants#DEFAULT_INTEGRATION_CACHE_TTL_MINUTES}.
+	 */
+	public GitChangelogApi withGitHubCacheTtlMinutes(final int minutes) {
+		this.settings.setGitHubCacheTtlMinutes(minutes);
+		return this;
+	}
+
+	/**
+	 * Minutes to keep a GitLab issue in the {@link #withIntegrationCache(String)}. Default is {@link
+	 * GitChangelogApiConstants#DEFAULT_INTEGRATION_CACHE_TTL_MINUTES}.
+	 */
+	public GitChangelogApi withGitLabCacheTtlMinutes(final int minutes) {
+		this.settings.setGitLabCacheTtlMinutes(minutes);
+		return this;
+	}
+
+	/**
+	 * Minutes to remember, in the {@link #withIntegrationCache(String)}, that an issue was not found
+	 * in JIRA, GitHub or GitLab. Default is {@link
+	 * GitChangelogApiConstants#DEFAULT_INTEGRATION_CACHE_NOT_FOUND_TTL_MINUTES}.
+	 */
+	public GitChangelogApi withIntegrationCacheNotFoundTtlMinutes(final int minutes) {
+		this.settings.setIntegrationCacheNotFoundTtlMinutes(minutes);
+		return this;
+	}
+
+	/**
+	 * Do not fetch anything from JIRA, GitHub or GitLab. Issues are only taken from the {@link
+	 * #withIntegrationCache(String)}, however old they are.
+	 */
+	public GitChangelogApi withOffline(final boolean offline) {
+		this.settings.setOffline(offline);
+		return this;
+	}
+
 	/**
 	 * A regular expression that is evaluated on each tag. If it matches, the tag will be filtered out
 	 * and not included in the changelog.
@@ -347,6 +592,26 @@ public class GitChangelogApi {
 		return this;
 	}
 
+	/**
+	 * Number of JIRA issues to get with one search request. The issues of a changelog are searched
+	 * for, in pages of this size, before they are used. With 1 each issue is requested by itself.
+	 * Default is {@link GitChangelogApiConstants#DEFAULT_JIRA_ISSUES_PER_REQUEST}.
+	 */
+	public GitChangelogApi withJiraIssuesPerRequest(final int jiraIssuesPerRequest) {
+		this.settings.setJiraIssuesPerRequest(jiraIssuesPerRequest);
+		return this;
+	}
+
+	/**
+	 * Keep JIRA responses in this folder between runs. A kept response is revalidated, with <code>
+	 * If-None-Match</code> and <code>If-Modified-Since</code>, and is not downloaded again if JIRA
+	 * responds that it is not modified.
+	 */
+	public GitChangelogApi withJiraHttpCache(final String directory) {
+		this.settings.setJiraHttpCacheDirectory(directory);
+		return this;
+	}
+
 	/** Authenticate to JIRA. */
 	public GitChangelogApi withJiraUsername(final String string) {
 		this.settings.setJiraUsername(string);
@@ -438,26 +703,58 @@ public class GitChangelogApi {
 		return this;
 	}
 
-	private Changelog getChangelog(final GitRepo gitRepo, final boolean useIntegrationIfConfigured)
-																									throws GitChangelogRepositoryException {
-		final ObjectId fromId =
-				getId(gitRepo, this.settings.getFromRef(), this.settings.getFromCommit()) //
-					.or(gitRepo.getCommit(ZERO_COMMIT));
-		final Optional<ObjectId> toIdOpt =
-				getId(gitRepo, this.settings.getToRef(), this.settings.getToCommit());
-		ObjectId toId;
-		if (toIdOpt.isPresent()) {
-			toId = toIdOpt.get();
-		} else {
-			toId = gitRepo.getRef(REF_MASTER);
+	private void render(final Mustache mustache, final Object changelog, final Writer writer)
+		throws GitChangelogRepositoryException {
+		try {
+			mustache
+					.execute(
+								writer, //
+								new Object[]{changelog, this.settings.getExtendedVariables()} //
+					)
+					.flush();
+		} catch (final IOException e) {
+			// Should be impossible!
+			throw new GitChangelogRepositoryException("", e);
 		}
-		GitRepoData gitRepoData =
+	}
+
+	private GitRepo newGitRepo() throws GitChangelogRepositoryException {
+		final File repo = new File(this.settings.getFromRepo());
+		if (this.settings.useGitRepoPool()) {
+			return gitRepoPool().acquire(repo, this.settings.useChangelogIndex());
+		}
+		return new GitRepo(repo, this.settings.useChangelogIndex());
+	}
+
+	private StreamedChangelog getStreamedChangelog(
+		final GitRepo gitRepo, final boolean useIntegrationIfConfigured)
+		throws GitChangelogRepositoryException {
+		final ObjectId fromId =
+				getFromId(gitRepo, this.settings.getFromRef(), this.settings.getFromCommit());
+		final ObjectId toId = getToId(gitRepo, this.settings.getToRef(), this.settings.getToCommit());
+		return getStreamedChangelog(gitRepo, fromId, toId, useIntegrationIfConfigured);
+	}
+
+	private StreamedChangelog getStreamedChangelog(
+		final GitRepo gitRepo,
+		final ObjectId fromId,
+		final ObjectId toId,
+		final boolean useIntegrationIfConfigured)
+		throws GitChangelogRepositoryException {
+		final GitRepoData gitRepoData =
 			gitRepo.getGitRepoData(
 				fromId,
 				toId,
 				this.settings.getUntaggedName(),
 				this.settings.getIgnoreTagsIfNameMatches());
+		return getStreamedChangelog(gitRepoData, useIntegrationIfConfigured, null);
+	}
 
+	/** @param issueCache Null if the issues should not be shared with other changelogs. */
+	private StreamedChangelog getStreamedChangelog(
+		GitRepoData gitRepoData,
+		final boolean useIntegrationIfConfigured,
+		final IssueCache issueCache) {
 		if (!settings.getGitHubApi().isPresent()) {
 			settings.setGitHubApi(gitRepoData.findGitHubApi().orNull());
 		}
@@ -466,11 +763,13 @@ public class GitChangelogApi {
 			settings.setGitLabProjectName(gitRepoData.findOwnerName().orNull());
 		}
 
+		final SettingsPatterns settingsPatterns = new SettingsPatterns(this.settings);
 		List<GitCommit> diff = gitRepoData.getGitCommits();
 		List<ParsedIssue> issues = 
 			this.settings.getMergeRequestsFirst()?
 				new ArrayList<>():
-				new IssueParser(this.settings, diff).parseForIssues(useIntegrationIfConfigured);
+				new IssueParser(this.settings, settingsPatterns, diff, issueCache)
+					.parseForIssues(useIntegrationIfConfigured);
 		if (this.settings.ignoreCommitsWithoutIssue()) {
 			gitRepoData = removeCommitsWithoutIssue(issues, gitRepoData);
 			diff = gitRepoData.getGitCommits();
@@ -527,16 +826,31 @@ public class GitChangelogApi {
 			}
 		}
 		final List<GitTag> tags = gitRepoData.getGitTags();
-		final Transformer transformer = new Transformer(this.settings);
-		return new Changelog( //
-								transformer.toCommits(diff), //
-								transformer.toMergeRequests(mergeRequests), //
-								transformer.toTags(tags, issues, mergeRequests), //
-								transformer.toAuthors(diff), //
-								transformer.toIssues(issues), //
-								transformer.toIssueTypes(issues), //
-								gitRepoData.findOwnerName().orNull(), //
-								gitRepoData.findRepoName().orNull());
+		return new StreamedChangelog( //
+										new Transformer(this.settings, settingsPatterns), //
+										diff, //
+										tags, //
+										issues, //
+										mergeRequests, //
+										gitRepoData.findOwnerName().orNull(), //
+										gitRepoData.findRepoName().orNull());
+	}
+
+	private ObjectId getFromId(
+		final GitRepo gitRepo, final Optional<String> ref, final Optional<String> commit)
+		throws GitChangelogRepositoryException {
+		return getId(gitRepo, ref, commit) //
+				.or(gitRepo.getCommit(ZERO_COMMIT));
+	}
+
+	private ObjectId getToId(
+		final GitRepo gitRepo, final Optional<String> ref, final Optional<String> commit)
+		throws GitChangelogRepositoryException {
+		final Optional<ObjectId> toIdOpt = getId(gitRepo, ref, commit);
+		if (toIdOpt.isPresent()) {
+			return toIdOpt.get();
+		}
+		return gitRepo.getRef(REF_MASTER);
 	}
 
 	private Optional<ObjectId> getId(
@@ -551,27 +865,12 @@ public class GitChangelogApi {
 		return absent();
 	}
 
-	private String getTemplateContent() {
+	private CompiledTemplate getTemplate() {
 		if (this.templateContent != null) {
-			return this.templateContent;
+			return templateCache()
+				.getTemplateFromContent(this.templateContent, this.settings.getTemplatePath());
 		}
 		checkArgument(this.settings.getTemplatePath() != null, "You must specify a template!");
-		try {
-			return Resources.toString(getResource(this.settings.getTemplatePath()), UTF_8);
-		} catch (final Exception e) {
-			File file = null;
-			try {
-				file = new File(this.settings.getTemplatePath());
-				return Files.toString(file, UTF_8);
-			} catch (final IOException e2) {
-				throw new RuntimeException(
-					"Cannot find on classpath ("
-						+ this.settings.getTemplatePath()
-						+ ") or filesystem ("
-						+ file.getAbsolutePath()
-						+ ").",
-					e2);
-			}
-		}
+		return templateCache().getTemplateFromPath(this.settings.getTemplatePath());
 	}
 }
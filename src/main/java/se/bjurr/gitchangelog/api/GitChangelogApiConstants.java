@@ -16,6 +16,14 @@ public final class GitChangelogApiConstants {
   public static final String DEFAULT_GITHUB_ISSUE_PATTERN = "#([0-9]+)";
   public static final String DEFAULT_GITLAB_ISSUE_PATTERN = "#([0-9]+)";
   public static final String DEFAULT_JIRA_ISSUE_PATTEN = "\\b[a-zA-Z]([a-zA-Z]+)-([0-9]+)\\b";
+  public static final int DEFAULT_JIRA_ISSUES_PER_REQUEST = 50;
+  public static final int DEFAULT_GITHUB_PAGES_IN_PARALLEL = 4;
+  public static final int DEFAULT_ISSUE_LOOKUPS_IN_PARALLEL = 8;
+  public static final String DEFAULT_GITHUB_CACHE_DIRECTORY = ".okhttpcache";
+  public static final long DEFAULT_GITHUB_CACHE_SIZE = 1024 * 1024 * 10;
+  public static final int DEFAULT_INTEGRATION_CACHE_MAX_ENTRIES = 10000;
+  public static final int DEFAULT_INTEGRATION_CACHE_TTL_MINUTES = 24 * 60;
+  public static final int DEFAULT_INTEGRATION_CACHE_NOT_FOUND_TTL_MINUTES = 60;
 
   private GitChangelogApiConstants() {}
 }
@@ -0,0 +1,112 @@
+package se.bjurr.gitchangelog.api;
+
+import static com.google.common.base.Optional.absent;
+import static com.google.common.base.Optional.of;
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Stopwatch.createStarted;
+import static java.util.concurrent.Executors.newFixedThreadPool;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+import com.google.common.base.Optional;
+import com.google.common.base.Stopwatch;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Renders the changelogs of several repositories, a few at a time. Each changelog is configured
+ * with its own {@link GitChangelogApi}, like when rendering it alone.<br>
+ * <br>
+ * Every changelog is rendered with a copy of its {@link GitChangelogApi}, so settings that are
+ * changed while rendering are not seen by the others. Caches of the integrations, like issues from
+ * GitLab, are shared by all of them.
+ */
+public class GitChangelogRunner {
+	private static final Logger LOG = LoggerFactory.getLogger(GitChangelogRunner.class);
+
+	public static GitChangelogRunner gitChangelogRunner() {
+		return new GitChangelogRunner();
+	}
+
+	private final List<GitChangelogApi> changelogs = new ArrayList<>();
+	private int threads = Runtime.getRuntime().availableProcessors();
+	private ExecutorService executorService;
+
+	private GitChangelogRunner() {}
+
+	/**
+	 * A changelog to render. The {@link GitChangelogApi} is copied here, so changing it later does not
+	 * change this changelog.
+	 */
+	public GitChangelogRunner withChangelog(final GitChangelogApi gitChangelogApi) {
+		this.changelogs.add(gitChangelogApi.copy());
+		return this;
+	}
+
+	/** Number of changelogs to render at the same time. Default is the number of processors. */
+	public GitChangelogRunner withThreads(final int threads) {
+		checkArgument(threads > 0, "Threads must be at least 1, was " + threads);
+		this.threads = threads;
+		return this;
+	}
+
+	/**
+	 * Render the changelogs with this executor, instead of a thread pool of {@link
+	 * #withThreads(int)} threads. It is not shut down when done.
+	 */
+	public GitChangelogRunner withExecutorService(final ExecutorService executorService) {
+		this.executorService = executorService;
+		return this;
+	}
+
+	/**
+	 * Renders all changelogs. A changelog that fails does not stop the others, its failure is in its
+	 * result.
+	 *
+	 * @return One result per changelog, in the order they were added.
+	 * @throws InterruptedException If interrupted while waiting for the changelogs.
+	 */
+	public List<GitChangelogRunnerResult> render() throws InterruptedException {
+		final ExecutorService executor =
+				this.executorService != null ? this.executorService : newFixedThreadPool(this.threads);
+		try {
+			final List<Future<GitChangelogRunnerResult>> futures = new ArrayList<>();
+			for (final GitChangelogApi changelog : this.changelogs) {
+				futures.add(executor.submit(() -> render(changelog)));
+			}
+			final List<GitChangelogRunnerResult> results = new ArrayList<>();
+			for (final Future<GitChangelogRunnerResult> future : futures) {
+				try {
+					results.add(future.get());
+				} catch (final ExecutionException e) {
+					throw new RuntimeException(e.getCause());
+				}
+			}
+			return results;
+		} finally {
+			if (executor != this.executorService) {
+				executor.shutdownNow();
+			}
+		}
+	}
+
+	private GitChangelogRunnerResult render(final GitChangelogApi changelog) {
+		final String repo = changelog.getSettings().getFromRepo();
+		final Stopwatch stopwatch = createStarted();
+		Optional<String> rendered = absent();
+		Optional<Exception> failure = absent();
+		try {
+			rendered = of(changelog.render());
+			LOG.info("Rendered " + repo + " in " + stopwatch.elapsed(MILLISECONDS) + "ms");
+		} catch (final Exception e) {
+			LOG.error("Could not render " + repo, e);
+			failure = of(e);
+		}
+		return new GitChangelogRunnerResult(
+				repo, rendered, failure, stopwatch.elapsed(MILLISECONDS));
+	}
+}
@@ -0,0 +1,59 @@
+package se.bjurr.gitchangelog.api;
+
+import com.google.common.base.Optional;
+
+/** The outcome of one changelog rendered by the {@link GitChangelogRunner}. */
+public class GitChangelogRunnerResult {
+	private final String repo;
+	private final Optional<String> rendered;
+	private final Optional<Exception> failure;
+	private final long elapsedMillis;
+
+	GitChangelogRunnerResult(
+		final String repo,
+		final Optional<String> rendered,
+		final Optional<Exception> failure,
+		final long elapsedMillis) {
+		this.repo = repo;
+		this.rendered = rendered;
+		this.failure = failure;
+		this.elapsedMillis = elapsedMillis;
+	}
+
+	/** Folder where repo lives. */
+	public String getRepo() {
+		return this.repo;
+	}
+
+	/** The changelog, if it was rendered. */
+	public Optional<String> getRendered() {
+		return this.rendered;
+	}
+
+	/** Why the changelog was not rendered, if it was not. */
+	public Optional<Exception> getFailure() {
+		return this.failure;
+	}
+
+	public boolean isSuccessful() {
+		return this.rendered.isPresent();
+	}
+
+	/** Time it took to render, or to fail. */
+	public long getElapsedMillis() {
+		return this.elapsedMillis;
+	}
+
+	@Override
+	public String toString() {
+		return "GitChangelogRunnerResult [repo="
+				+ this.repo
+				+ ", successful="
+				+ isSuccessful()
+				+ ", failure="
+				+ this.failure.orNull()
+				+ ", elapsedMillis="
+				+ this.elapsedMillis
+				+ "]";
+	}
+}
@@ -0,0 +1,44 @@
+package se.bjurr.gitchangelog.internal.common;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+
+/**
+ * Writes files so that they are never seen half written, by a reader or after a failure. The
+ * content is written to a temporary file in the same folder, that then replaces the file.
+ */
+public class AtomicFiles {
+
+  public interface Content<E extends Exception> {
+    void writeTo(OutputStream outputStream) throws IOException, E;
+  }
+
+  private AtomicFiles() {}
+
+  /**
+   * Creates the folder of the file if needed. If writing the content fails, the file is left as it
+   * was.
+   */
+  public static <E extends Exception> void write(final File file, final Content<E> content)
+      throws IOException, E {
+    final File directory = file.getAbsoluteFile().getParentFile();
+    if (!directory.isDirectory() && !directory.mkdirs()) {
+      throw new IOException("Could not create " + directory);
+    }
+    final File tmpFile = File.createTempFile(file.getName(), ".tmp", directory);
+    try {
+      try (OutputStream outputStream = new FileOutputStream(tmpFile)) {
+        content.writeTo(outputStream);
+      }
+      Files.move(tmpFile.toPath(), file.toPath(), REPLACE_EXISTING, ATOMIC_MOVE);
+    } finally {
+      tmpFile.delete();
+    }
+  }
+}
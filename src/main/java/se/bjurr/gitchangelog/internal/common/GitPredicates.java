@@ -1,26 +1,17 @@
 package se.bjurr.gitchangelog.internal.common;
 
-import static java.util.regex.Pattern.DOTALL;
-import static java.util.regex.Pattern.compile;
-
 import com.google.common.base.Predicate;
 import se.bjurr.gitchangelog.internal.git.model.GitCommit;
 import se.bjurr.gitchangelog.internal.settings.Settings;
+import se.bjurr.gitchangelog.internal.settings.SettingsPatterns;
 
 public class GitPredicates {
 
-  public static Predicate<GitCommit> ignoreCommits(final Settings settings) {
+  public static Predicate<GitCommit> ignoreCommits(
+      final Settings settings, final SettingsPatterns settingsPatterns) {
     return new Predicate<GitCommit>() {
       @Override
       public boolean apply(GitCommit gitCommit) {
-        boolean messageMatches =
-            compile(settings.getIgnoreCommitsIfMessageMatches(), DOTALL)
-                .matcher(gitCommit.getMessage())
-                .matches();
-        if (messageMatches) {
-          return false;
-        }
-
         if (settings.getIgnoreCommitsIfOlderThan().isPresent()) {
           boolean olderThan =
               gitCommit.getCommitTime().before(settings.getIgnoreCommitsIfOlderThan().get());
@@ -28,6 +19,15 @@ public class GitPredicates {
             return false;
           }
         }
+
+        boolean messageMatches =
+            settingsPatterns
+                .getIgnoreCommitsIfMessageMatches()
+                .matcher(gitCommit.getMessage())
+                .matches();
+        if (messageMatches) {
+          return false;
+        }
         return true;
       }
     };
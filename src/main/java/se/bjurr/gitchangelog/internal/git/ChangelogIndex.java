@@ -0,0 +1,235 @@
+package se.bjurr.gitchangelog.internal.git;
+
+import static com.google.common.base.Charsets.UTF_8;
+import static com.google.common.base.Optional.absent;
+import static com.google.common.collect.Lists.newArrayList;
+import static com.google.common.collect.Maps.newHashMap;
+import static com.google.common.collect.Maps.newLinkedHashMap;
+import static com.google.common.collect.Sets.newHashSet;
+
+import com.google.common.base.Optional;
+import com.google.gson.Gson;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import se.bjurr.gitchangelog.internal.common.AtomicFiles;
+import se.bjurr.gitchangelog.internal.git.model.GitCommit;
+import se.bjurr.gitchangelog.internal.git.model.GitTag;
+
+/**
+ * Index stored in <code>.git/changelog-index</code>. It keeps:
+ *
+ * <ul>
+ *   <li>The parsed fields of every commit that is part of an indexed changelog. A commit never
+ *       changes, so these are valid as long as the commit exists.
+ *   <li>The commits per tag, for the last few changelogs. Keyed by everything that the result
+ *       depends on, see {@link GitRepo}. If a tag is moved, or history is rewritten, the key changes
+ *       and the result is not used.
+ * </ul>
+ *
+ * If the index cannot be read it is simply rebuilt.
+ */
+class ChangelogIndex {
+  private static final Logger LOG = LoggerFactory.getLogger(ChangelogIndex.class);
+  private static final Gson gson = new Gson();
+  private static final String INDEX_DIR = "changelog-index";
+  private static final String INDEX_FILE = "index.json.gz";
+  private static final int VERSION = 2;
+  /** Number of changelogs to keep in the index. */
+  private static final int MAX_CHANGELOGS = 10;
+
+  private static class IndexData {
+    private int version;
+    private Map<String, List<String>> rootCommitsPerHead;
+    private Map<String, IndexedCommit> commits;
+    private Map<String, List<IndexedTag>> changelogs;
+  }
+
+  private static class IndexedCommit {
+    private String authorName;
+    private String authorEmailAddress;
+    private long commitTime;
+    private String message;
+    private boolean merge;
+  }
+
+  private static class IndexedTag {
+    private String name;
+    private String annotation;
+    private Long tagTime;
+    private List<String> commits;
+  }
+
+  private final File indexFile;
+  private final Map<String, List<String>> rootCommitsPerHead = newHashMap();
+  private final Map<String, GitCommit> commits = newHashMap();
+  private final Map<String, List<IndexedTag>> changelogs = newLinkedHashMap();
+  private boolean changed;
+
+  private ChangelogIndex(final File indexFile) {
+    this.indexFile = indexFile;
+  }
+
+  /** @param gitDir The <code>.git</code> folder of the repository. */
+  public static ChangelogIndex load(final File gitDir) {
+    final ChangelogIndex index = new ChangelogIndex(new File(new File(gitDir, INDEX_DIR), INDEX_FILE));
+    if (!index.indexFile.exists()) {
+      return index;
+    }
+    try (Reader reader =
+        new InputStreamReader(new GZIPInputStream(new FileInputStream(index.indexFile)), UTF_8)) {
+      final IndexData data = gson.fromJson(reader, IndexData.class);
+      if (data != null && data.version == VERSION) {
+        index.populate(data);
+      }
+    } catch (final Exception e) {
+      LOG.warn("Could not read " + index.indexFile + ", it will be rebuilt.", e);
+      index.rootCommitsPerHead.clear();
+      index.commits.clear();
+      index.changelogs.clear();
+    }
+    return index;
+  }
+
+  public Optional<List<String>> getRootCommits(final String head) {
+    return Optional.fromNullable(this.rootCommitsPerHead.get(head));
+  }
+
+  public void putRootCommits(final String head, final List<String> rootCommits) {
+    if (!rootCommits.equals(this.rootCommitsPerHead.get(head))) {
+      this.rootCommitsPerHead.clear();
+      this.rootCommitsPerHead.put(head, rootCommits);
+      this.changed = true;
+    }
+  }
+
+  public GitCommit getCommit(final String hash) {
+    return this.commits.get(hash);
+  }
+
+  public void putCommit(final GitCommit gitCommit) {
+    this.commits.put(gitCommit.getHash(), gitCommit);
+  }
+
+  public Optional<List<GitTag>> getGitTags(final String key) {
+    final List<IndexedTag> indexedTags = this.changelogs.get(key);
+    if (indexedTags == null) {
+      return absent();
+    }
+    final List<GitTag> gitTags = newArrayList();
+    for (final IndexedTag indexedTag : indexedTags) {
+      final List<GitCommit> gitCommits = newArrayList();
+      for (final String hash : indexedTag.commits) {
+        final GitCommit gitCommit = this.commits.get(hash);
+        if (gitCommit == null) {
+          return absent();
+        }
+        gitCommits.add(gitCommit);
+      }
+      final Date tagTime = indexedTag.tagTime == null ? null : new Date(indexedTag.tagTime);
+      gitTags.add(new GitTag(indexedTag.name, indexedTag.annotation, gitCommits, tagTime));
+    }
+    return Optional.of(gitTags);
+  }
+
+  public void putGitTags(final String key, final List<GitTag> gitTags) {
+    final List<IndexedTag> indexedTags = newArrayList();
+    for (final GitTag gitTag : gitTags) {
+      final IndexedTag indexedTag = new IndexedTag();
+      indexedTag.name = gitTag.getName();
+      indexedTag.annotation = gitTag.findAnnotation().orNull();
+      indexedTag.tagTime = gitTag.getTagTime() == null ? null : gitTag.getTagTime().getTime();
+      indexedTag.commits = newArrayList();
+      for (final GitCommit gitCommit : gitTag.getGitCommits()) {
+        putCommit(gitCommit);
+        indexedTag.commits.add(gitCommit.getHash());
+      }
+      indexedTags.add(indexedTag);
+    }
+    this.changelogs.remove(key);
+    this.changelogs.put(key, indexedTags);
+    final Iterator<String> oldest = this.changelogs.keySet().iterator();
+    while (this.changelogs.size() > MAX_CHANGELOGS) {
+      oldest.next();
+      oldest.remove();
+    }
+    this.changed = true;
+  }
+
+  /**
+   * Writes the index, if it changed. Commits that are not part of any of the indexed changelogs
+   * are not written.
+   */
+  public void save() throws IOException {
+    if (!this.changed) {
+      return;
+    }
+    final Set<String> referenced = newHashSet();
+    for (final List<IndexedTag> indexedTags : this.changelogs.values()) {
+      for (final IndexedTag indexedTag : indexedTags) {
+        referenced.addAll(indexedTag.commits);
+      }
+    }
+    final IndexData data = new IndexData();
+    data.version = VERSION;
+    data.rootCommitsPerHead = this.rootCommitsPerHead;
+    data.commits = newHashMap();
+    for (final String hash : referenced) {
+      final GitCommit gitCommit = this.commits.get(hash);
+      final IndexedCommit indexedCommit = new IndexedCommit();
+      indexedCommit.authorName = gitCommit.getAuthorName();
+      indexedCommit.authorEmailAddress = gitCommit.getAuthorEmailAddress();
+      indexedCommit.commitTime = gitCommit.getCommitTime().getTime();
+      indexedCommit.message = gitCommit.getMessage();
+      indexedCommit.merge = gitCommit.isMerge();
+      data.commits.put(hash, indexedCommit);
+    }
+    data.changelogs = this.changelogs;
+
+    AtomicFiles.write(
+        this.indexFile,
+        outputStream -> {
+          try (Writer writer =
+              new OutputStreamWriter(new GZIPOutputStream(outputStream), UTF_8)) {
+            gson.toJson(data, writer);
+          }
+        });
+    this.changed = false;
+  }
+
+  private void populate(final IndexData data) {
+    if (data.rootCommitsPerHead != null) {
+      this.rootCommitsPerHead.putAll(data.rootCommitsPerHead);
+    }
+    if (data.commits != null) {
+      for (final Map.Entry<String, IndexedCommit> entry : data.commits.entrySet()) {
+        final IndexedCommit c = entry.getValue();
+        this.commits.put(
+            entry.getKey(),
+            new GitCommit(
+                c.authorName,
+                c.authorEmailAddress,
+                new Date(c.commitTime),
+                c.message,
+                entry.getKey(),
+                c.merge));
+      }
+    }
+    if (data.changelogs != null) {
+      this.changelogs.putAll(data.changelogs);
+    }
+  }
+}
@@ -0,0 +1,217 @@
+package se.bjurr.gitchangelog.internal.git;
+
+import static com.google.common.collect.Lists.newArrayList;
+
+import com.google.common.base.Optional;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.List;
+import org.eclipse.jgit.lib.AnyObjectId;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectIdOwnerMap;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.revwalk.RevWalk;
+
+/**
+ * Parents and commit times of commits, where every commit is given a position. Walks can then keep
+ * track of commits in arrays, or bit sets, indexed by position.<br>
+ * <br>
+ * If there is a {@link CommitGraphFile} the commits in it are read from there, without parsing the
+ * commit objects. Commits that are not in it, like those committed since it was written, are parsed
+ * with the {@link RevWalk}. They are given positions after those in the file.
+ */
+class CommitGraph {
+  /** Generation number of commits where it is not known. */
+  public static final int GENERATION_UNKNOWN = 0;
+
+  private static class ParsedCommit extends ObjectIdOwnerMap.Entry {
+    private static final long serialVersionUID = -3304617946190728152L;
+
+    private final int position;
+    private final RevCommit commit;
+    private int[] parents;
+    private int generation = -1;
+
+    public ParsedCommit(final RevCommit commit, final int position) {
+      super(commit);
+      this.commit = commit;
+      this.position = position;
+    }
+  }
+
+  private final RevWalk revWalk;
+  private final Optional<CommitGraphFile> commitGraphFile;
+  /** Number of positions taken by the {@link #commitGraphFile}. */
+  private final int filePositions;
+
+  private final ObjectIdOwnerMap<ParsedCommit> parsedPerId = new ObjectIdOwnerMap<>();
+  private final List<ParsedCommit> parsed = newArrayList();
+
+  public CommitGraph(final RevWalk revWalk) {
+    this(revWalk, Optional.<CommitGraphFile>absent());
+  }
+
+  public CommitGraph(final RevWalk revWalk, final Optional<CommitGraphFile> commitGraphFile) {
+    this.revWalk = revWalk;
+    this.commitGraphFile = commitGraphFile;
+    if (commitGraphFile.isPresent()) {
+      this.filePositions = commitGraphFile.get().getCommitCount();
+    } else {
+      this.filePositions = 0;
+    }
+  }
+
+  /** Parses the commit, if it needs to be parsed to know its position. */
+  public int getPosition(final AnyObjectId id) throws IOException {
+    if (this.commitGraphFile.isPresent()) {
+      final int position = this.commitGraphFile.get().findPosition(id);
+      if (position >= 0) {
+        return position;
+      }
+    }
+    ParsedCommit parsedCommit = this.parsedPerId.get(id);
+    if (parsedCommit == null) {
+      final RevCommit commit = this.revWalk.lookupCommit(id);
+      this.revWalk.parseHeaders(commit);
+      parsedCommit = new ParsedCommit(commit, this.filePositions + this.parsed.size());
+      this.parsed.add(parsedCommit);
+      this.parsedPerId.add(parsedCommit);
+    }
+    return parsedCommit.position;
+  }
+
+  /**
+   * Forgets the commits that were parsed. They may be parsed again, and then given new positions.
+   * Positions from before are no longer valid.
+   */
+  public void reset() {
+    this.parsedPerId.clear();
+    this.parsed.clear();
+  }
+
+  public int getCommitTime(final int position) {
+    if (position < this.filePositions) {
+      return this.commitGraphFile.get().getCommitTime(position);
+    }
+    return getParsed(position).commit.getCommitTime();
+  }
+
+  /** @return Positions of the parents. */
+  public int[] getParents(final int position) throws IOException {
+    if (position < this.filePositions) {
+      return this.commitGraphFile.get().getParents(position);
+    }
+    final ParsedCommit parsedCommit = getParsed(position);
+    if (parsedCommit.parents == null) {
+      final RevCommit[] parents = parsedCommit.commit.getParents();
+      final int[] parentPositions = new int[parents.length];
+      for (int i = 0; i < parents.length; i++) {
+        parentPositions[i] = getPosition(parents[i]);
+      }
+      parsedCommit.parents = parentPositions;
+    }
+    return parsedCommit.parents;
+  }
+
+  /**
+   * A commit can only reach commits with a lower generation number. They are only known if there is
+   * a {@link CommitGraphFile} with generation numbers. For parsed commits they are computed from
+   * their parents.
+   *
+   * @return The generation number, or {@link #GENERATION_UNKNOWN}.
+   */
+  public int getGeneration(final int position) throws IOException {
+    if (position < this.filePositions) {
+      return this.commitGraphFile.get().getGeneration(position);
+    }
+    if (!this.commitGraphFile.isPresent()) {
+      return GENERATION_UNKNOWN;
+    }
+    final Deque<Integer> toCompute = new ArrayDeque<>();
+    toCompute.push(position);
+    while (!toCompute.isEmpty()) {
+      final ParsedCommit parsedCommit = getParsed(toCompute.peek());
+      if (parsedCommit.generation >= 0) {
+        toCompute.pop();
+        continue;
+      }
+      int generation = 1;
+      boolean parentsComputed = true;
+      for (final int parent : getParents(parsedCommit.position)) {
+        int parentGeneration;
+        if (parent < this.filePositions) {
+          parentGeneration = this.commitGraphFile.get().getGeneration(parent);
+        } else {
+          parentGeneration = getParsed(parent).generation;
+          if (parentGeneration < 0) {
+            toCompute.push(parent);
+            parentsComputed = false;
+            continue;
+          }
+        }
+        if (parentGeneration == GENERATION_UNKNOWN || generation == GENERATION_UNKNOWN) {
+          generation = GENERATION_UNKNOWN;
+        } else {
+          generation = Math.max(generation, parentGeneration + 1);
+        }
+      }
+      if (parentsComputed) {
+        parsedCommit.generation = generation;
+        toCompute.pop();
+      }
+    }
+    return getParsed(position).generation;
+  }
+
+  public ObjectId getObjectId(final int position) {
+    if (position < this.filePositions) {
+      return this.commitGraphFile.get().getObjectId(position);
+    }
+    return getParsed(position).commit;
+  }
+
+  /**
+   * @return The commit, in the {@link RevWalk}, at the position. It is only parsed if it had to be
+   *     parsed to find its position.
+   */
+  public RevCommit lookupCommit(final int position) {
+    if (position < this.filePositions) {
+      return this.revWalk.lookupCommit(this.commitGraphFile.get().getObjectId(position));
+    }
+    return getParsed(position).commit;
+  }
+
+  /**
+   * @return The commits, reachable from <code>start</code>, that have no parents. Like <code>
+   *     git rev-list --max-parents=0 start</code>, in the order they are reached when walking newest
+   *     commit first.
+   */
+  public List<ObjectId> getRoots(final AnyObjectId start) throws IOException {
+    final List<ObjectId> roots = newArrayList();
+    final BitSet seen = new BitSet();
+    final CommitTimeQueue queue = new CommitTimeQueue();
+    final int startPosition = getPosition(start);
+    seen.set(startPosition);
+    queue.add(startPosition, getCommitTime(startPosition));
+    while (!queue.isEmpty()) {
+      final int c = queue.next();
+      final int[] parents = getParents(c);
+      if (parents.length == 0) {
+        roots.add(getObjectId(c).copy());
+      }
+      for (final int parent : parents) {
+        if (!seen.get(parent)) {
+          seen.set(parent);
+          queue.add(parent, getCommitTime(parent));
+        }
+      }
+    }
+    return roots;
+  }
+
+  private ParsedCommit getParsed(final int position) {
+    return this.parsed.get(position - this.filePositions);
+  }
+}
@@ -0,0 +1,221 @@
+package se.bjurr.gitchangelog.internal.git;
+
+import static com.google.common.base.Optional.absent;
+import static java.nio.channels.FileChannel.MapMode.READ_ONLY;
+
+import com.google.common.base.Optional;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import org.eclipse.jgit.lib.AnyObjectId;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Reads the <code>objects/info/commit-graph</code> file, written by <code>git commit-graph write
+ * </code> or <code>git gc</code>. It has the parents and commit time of every commit in it, so they
+ * can be found without inflating the commit objects.<br>
+ * <br>
+ * Only a single file, version 1 with SHA-1, is supported. Split commit graphs, in <code>
+ * objects/info/commit-graphs</code>, are not.
+ */
+class CommitGraphFile {
+  private static final Logger LOG = LoggerFactory.getLogger(CommitGraphFile.class);
+
+  private static final int SIGNATURE = 0x43475048; // CGPH
+  private static final int CHUNK_OID_FANOUT = 0x4f494446; // OIDF
+  private static final int CHUNK_OID_LOOKUP = 0x4f49444c; // OIDL
+  private static final int CHUNK_COMMIT_DATA = 0x43444154; // CDAT
+  private static final int CHUNK_EXTRA_EDGES = 0x45444745; // EDGE
+  private static final int PARENT_NONE = 0x70000000;
+  private static final int PARENT_EXTRA_EDGES = 0x80000000;
+  private static final int COMMIT_DATA_WIDTH = Constants.OBJECT_ID_LENGTH + 16;
+  /** Generation numbers at, or above, this are not exact. */
+  private static final int GENERATION_MAX = 0x3fffffff;
+  private static final int[] NO_PARENTS = new int[0];
+
+  private final ByteBuffer buffer;
+  private final int fanout;
+  private final int oidLookup;
+  private final int commitData;
+  private final int extraEdges;
+  private final int commitCount;
+
+  private CommitGraphFile(
+      final ByteBuffer buffer,
+      final int fanout,
+      final int oidLookup,
+      final int commitData,
+      final int extraEdges) {
+    this.buffer = buffer;
+    this.fanout = fanout;
+    this.oidLookup = oidLookup;
+    this.commitData = commitData;
+    this.extraEdges = extraEdges;
+    this.commitCount = buffer.getInt(fanout + 255 * 4);
+  }
+
+  /**
+   * @param gitDir The <code>.git</code> folder of the repository.
+   * @return The commit graph, if the repository has one that can be used.
+   */
+  public static Optional<CommitGraphFile> open(final File gitDir) {
+    if (new File(gitDir, "shallow").exists()
+        || new File(gitDir, "info/grafts").exists()
+        || new File(gitDir, "refs/replace").isDirectory()) {
+      // Parents in the commit graph may not be the ones git uses in these repositories.
+      return absent();
+    }
+    final File file = getFile(gitDir);
+    if (!file.isFile()) {
+      return absent();
+    }
+    try (RandomAccessFile raf = new RandomAccessFile(file, "r");
+        FileChannel channel = raf.getChannel()) {
+      return parse(channel.map(READ_ONLY, 0, channel.size()));
+    } catch (final Exception e) {
+      LOG.warn("Could not read " + file + ", will not use it.", e);
+      return absent();
+    }
+  }
+
+  /** @return When the commit graph file was last written, or 0 if there is none. */
+  public static long lastModified(final File gitDir) {
+    return getFile(gitDir).lastModified();
+  }
+
+  private static File getFile(final File gitDir) {
+    return new File(gitDir, "objects/info/commit-graph");
+  }
+
+  private static Optional<CommitGraphFile> parse(final ByteBuffer buffer) {
+    if (buffer.getInt(0) != SIGNATURE
+        || buffer.get(4) != 1 // version
+        || buffer.get(5) != 1 // SHA-1
+        || buffer.get(7) != 0) { // base graphs
+      return absent();
+    }
+    final int chunkCount = buffer.get(6) & 0xff;
+    int fanout = -1;
+    int oidLookup = -1;
+    int commitData = -1;
+    int extraEdges = -1;
+    for (int i = 0; i < chunkCount; i++) {
+      final int entry = 8 + i * 12;
+      final int id = buffer.getInt(entry);
+      final int offset = (int) buffer.getLong(entry + 4);
+      if (id == CHUNK_OID_FANOUT) {
+        fanout = offset;
+      } else if (id == CHUNK_OID_LOOKUP) {
+        oidLookup = offset;
+      } else if (id == CHUNK_COMMIT_DATA) {
+        commitData = offset;
+      } else if (id == CHUNK_EXTRA_EDGES) {
+        extraEdges = offset;
+      }
+    }
+    if (fanout < 0 || oidLookup < 0 || commitData < 0) {
+      return absent();
+    }
+    return Optional.of(new CommitGraphFile(buffer, fanout, oidLookup, commitData, extraEdges));
+  }
+
+  public int getCommitCount() {
+    return this.commitCount;
+  }
+
+  /** @return Position of the commit in this file, or -1 if it is not in it. */
+  public int findPosition(final AnyObjectId id) {
+    final int firstByte = id.getFirstByte();
+    int low = firstByte == 0 ? 0 : this.buffer.getInt(this.fanout + (firstByte - 1) * 4);
+    int high = this.buffer.getInt(this.fanout + firstByte * 4);
+    final byte[] raw = new byte[Constants.OBJECT_ID_LENGTH];
+    id.copyRawTo(raw, 0);
+    while (low < high) {
+      final int mid = (low + high) >>> 1;
+      final int cmp = compareObjectId(mid, raw);
+      if (cmp < 0) {
+        low = mid + 1;
+      } else if (cmp > 0) {
+        high = mid;
+      } else {
+        return mid;
+      }
+    }
+    return -1;
+  }
+
+  public ObjectId getObjectId(final int position) {
+    final byte[] raw = new byte[Constants.OBJECT_ID_LENGTH];
+    final ByteBuffer oid = this.buffer.duplicate();
+    oid.position(this.oidLookup + position * Constants.OBJECT_ID_LENGTH);
+    oid.get(raw);
+    return ObjectId.fromRaw(raw);
+  }
+
+  public int getCommitTime(final int position) {
+    // Lower 34 bits are the commit time, the int commit time of JGit is the lower 32 of them.
+    return this.buffer.getInt(getCommitData(position) + Constants.OBJECT_ID_LENGTH + 12);
+  }
+
+  /**
+   * @return The generation number, one more than the highest generation number of the parents, or
+   *     {@link CommitGraph#GENERATION_UNKNOWN} if the file was written without them.
+   */
+  public int getGeneration(final int position) {
+    // Upper 30 bits, above the commit time.
+    final int generation =
+        this.buffer.getInt(getCommitData(position) + Constants.OBJECT_ID_LENGTH + 8) >>> 2;
+    if (generation >= GENERATION_MAX) {
+      return CommitGraph.GENERATION_UNKNOWN;
+    }
+    return generation;
+  }
+
+  /** @return Positions, in this file, of the parents. */
+  public int[] getParents(final int position) {
+    final int data = getCommitData(position) + Constants.OBJECT_ID_LENGTH;
+    final int parent1 = this.buffer.getInt(data);
+    if (parent1 == PARENT_NONE) {
+      return NO_PARENTS;
+    }
+    final int parent2 = this.buffer.getInt(data + 4);
+    if (parent2 == PARENT_NONE) {
+      return new int[] {parent1};
+    }
+    if ((parent2 & PARENT_EXTRA_EDGES) == 0) {
+      return new int[] {parent1, parent2};
+    }
+    int edge = this.extraEdges + (parent2 & ~PARENT_EXTRA_EDGES) * 4;
+    int count = 1;
+    while ((this.buffer.getInt(edge + (count - 1) * 4) & PARENT_EXTRA_EDGES) == 0) {
+      count++;
+    }
+    final int[] parents = new int[1 + count];
+    parents[0] = parent1;
+    for (int i = 0; i < count; i++) {
+      parents[1 + i] = this.buffer.getInt(edge) & ~PARENT_EXTRA_EDGES;
+      edge += 4;
+    }
+    return parents;
+  }
+
+  private int getCommitData(final int position) {
+    return this.commitData + position * COMMIT_DATA_WIDTH;
+  }
+
+  private int compareObjectId(final int position, final byte[] raw) {
+    final int offset = this.oidLookup + position * Constants.OBJECT_ID_LENGTH;
+    for (int i = 0; i < raw.length; i++) {
+      final int cmp = (this.buffer.get(offset + i) & 0xff) - (raw[i] & 0xff);
+      if (cmp != 0) {
+        return cmp;
+      }
+    }
+    return 0;
+  }
+}
@@ -0,0 +1,113 @@
+package se.bjurr.gitchangelog.internal.git;
+
+import static java.util.Arrays.copyOf;
+
+/**
+ * Queue of commit positions in a {@link CommitGraph}, newest commit first. Commits with the same
+ * commit time are taken in the same order as in the {@link org.eclipse.jgit.revwalk.DateRevQueue}
+ * that a {@link org.eclipse.jgit.revwalk.RevWalk} uses. That is, the one added last is taken first.
+ * Except if the next commit in the queue has the same commit time, it stays next.
+ */
+class CommitTimeQueue {
+  private static final long NEXT = Long.MAX_VALUE;
+
+  /** Binary max heap, of the order each commit was added in. */
+  private int[] heap = new int[64];
+  private int size;
+
+  /** Per order added. */
+  private int[] positions = new int[64];
+  private int[] commitTimes = new int[64];
+  /** Per order added, among commits with the same commit time the one with highest rank is next. */
+  private long[] ranks = new long[64];
+  private int added;
+  private long rank;
+  /** The commit that stays next, when commits with the same commit time are added. */
+  private int pinned = -1;
+
+  public void add(final int position, final int commitTime) {
+    if (this.added == this.positions.length) {
+      this.positions = copyOf(this.positions, this.added * 2);
+      this.commitTimes = copyOf(this.commitTimes, this.added * 2);
+      this.ranks = copyOf(this.ranks, this.added * 2);
+    }
+    final int commit = this.added++;
+    this.positions[commit] = position;
+    this.commitTimes[commit] = commitTime;
+
+    if (this.size > 0) {
+      final int next = this.heap[0];
+      if (commitTime == this.commitTimes[next]) {
+        if (this.pinned != next) {
+          this.pinned = next;
+          this.ranks[next] = NEXT;
+        }
+      } else if (commitTime > this.commitTimes[next]) {
+        unpin();
+      }
+    }
+    this.ranks[commit] = this.rank++;
+
+    if (this.size == this.heap.length) {
+      this.heap = copyOf(this.heap, this.size * 2);
+    }
+    int i = this.size++;
+    while (i > 0) {
+      final int parent = (i - 1) >>> 1;
+      if (!isBefore(commit, this.heap[parent])) {
+        break;
+      }
+      this.heap[i] = this.heap[parent];
+      i = parent;
+    }
+    this.heap[i] = commit;
+  }
+
+  public boolean isEmpty() {
+    return this.size == 0;
+  }
+
+  /** @return Position of the next commit, that is removed from the queue. */
+  public int next() {
+    final int next = this.heap[0];
+    if (next == this.pinned) {
+      this.pinned = -1;
+    }
+    final int last = this.heap[--this.size];
+    int i = 0;
+    while (true) {
+      int child = 2 * i + 1;
+      if (child >= this.size) {
+        break;
+      }
+      if (child + 1 < this.size && isBefore(this.heap[child + 1], this.heap[child])) {
+        child++;
+      }
+      if (!isBefore(this.heap[child], last)) {
+        break;
+      }
+      this.heap[i] = this.heap[child];
+      i = child;
+    }
+    this.heap[i] = last;
+    return this.positions[next];
+  }
+
+  private boolean isBefore(final int a, final int b) {
+    if (this.commitTimes[a] != this.commitTimes[b]) {
+      return this.commitTimes[a] > this.commitTimes[b];
+    }
+    return this.ranks[a] > this.ranks[b];
+  }
+
+  /**
+   * The pinned commit is no longer next. It keeps its place before the commits with the same commit
+   * time, that are already added, but not before those added later.
+   */
+  private void unpin() {
+    if (this.pinned >= 0) {
+      this.ranks[this.pinned] = this.rank++;
+      this.pinned = -1;
+    }
+  }
+}
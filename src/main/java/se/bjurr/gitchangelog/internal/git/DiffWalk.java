@@ -0,0 +1,148 @@
+package se.bjurr.gitchangelog.internal.git;
+
+import static com.google.common.collect.Lists.newArrayList;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.List;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.revwalk.RevWalk;
+
+/**
+ * Finds the commits that are reachable from one commit, but not from a set of other commits. It is
+ * done in one walk, newest commit first, from all of them at once.<br>
+ * <br>
+ * The {@link RevWalk} iterator can do this with {@link RevWalk#markUninteresting(RevCommit)}, but
+ * it hands out commits before it knows if they are excluded, and stops a few commits after only
+ * excluded commits are left. With clock skew, an excluded commit with an old commit time can still
+ * reach commits that were handed out. Here, commit times only decide the order of the walk. When
+ * every commit left is excluded, the walk goes on until none of them can reach a commit in the
+ * diff. That is known when their generation numbers are not higher than those of the commits in the
+ * diff, and the generation numbers are known. Otherwise the excluded history is walked to the end.
+ * <br>
+ * <br>
+ * The walk is done in a {@link CommitGraph}, so commits are only parsed if they are not in the
+ * commit graph file.
+ */
+class DiffWalk {
+  private final CommitGraph commitGraph;
+  private final BitSet seen = new BitSet();
+  private final BitSet queued = new BitSet();
+  private final BitSet excluded = new BitSet();
+  private final CommitTimeQueue queue = new CommitTimeQueue();
+  private int includedInQueue;
+
+  public DiffWalk(final RevWalk revWalk) {
+    this(new CommitGraph(revWalk));
+  }
+
+  public DiffWalk(final CommitGraph commitGraph) {
+    this.commitGraph = commitGraph;
+  }
+
+  /**
+   * Each instance walks once.
+   *
+   * @return All commits reachable from <code>to</code> but not from any of <code>excludes</code>,
+   *     newest first.
+   */
+  public List<RevCommit> getDiffingCommits(final RevCommit to, final RevCommit... excludes)
+      throws IOException {
+    for (final RevCommit exclude : excludes) {
+      exclude(this.commitGraph.getPosition(exclude));
+    }
+    see(this.commitGraph.getPosition(to));
+
+    final List<Integer> diffingCommits = newArrayList();
+    int lowestGeneration = -1;
+    while (!this.queue.isEmpty()) {
+      final int c = this.queue.next();
+      this.queued.clear(c);
+      if (this.excluded.get(c)) {
+        if (this.includedInQueue == 0) {
+          // No more commits can be added to the diff, only excluded from it.
+          if (lowestGeneration < 0) {
+            lowestGeneration = getLowestGeneration(diffingCommits);
+          }
+          if (lowestGeneration == Integer.MAX_VALUE) {
+            // Every commit in the diff is already excluded.
+            break;
+          }
+          final int generation = this.commitGraph.getGeneration(c);
+          if (generation != CommitGraph.GENERATION_UNKNOWN && generation <= lowestGeneration) {
+            // Can not reach any commit in the diff.
+            continue;
+          }
+        }
+        for (final int parent : this.commitGraph.getParents(c)) {
+          exclude(parent);
+        }
+      } else {
+        this.includedInQueue--;
+        diffingCommits.add(c);
+        for (final int parent : this.commitGraph.getParents(c)) {
+          see(parent);
+        }
+      }
+    }
+
+    final List<RevCommit> notExcluded = newArrayList();
+    for (final int c : diffingCommits) {
+      if (!this.excluded.get(c)) {
+        notExcluded.add(this.commitGraph.lookupCommit(c));
+      }
+    }
+    return notExcluded;
+  }
+
+  /**
+   * @return Lowest generation number of the commits that are not excluded, {@link
+   *     CommitGraph#GENERATION_UNKNOWN} if any of them has no generation number or {@link
+   *     Integer#MAX_VALUE} if there are none.
+   */
+  private int getLowestGeneration(final List<Integer> diffingCommits) throws IOException {
+    int lowest = Integer.MAX_VALUE;
+    for (final int c : diffingCommits) {
+      if (!this.excluded.get(c)) {
+        lowest = Math.min(lowest, this.commitGraph.getGeneration(c));
+      }
+    }
+    return lowest;
+  }
+
+  /** Excludes the commit and everything below it that has already been seen. */
+  private void exclude(final int commit) throws IOException {
+    final Deque<Integer> toExclude = new ArrayDeque<>();
+    toExclude.push(commit);
+    while (!toExclude.isEmpty()) {
+      final int c = toExclude.pop();
+      if (this.excluded.get(c)) {
+        continue;
+      }
+      this.excluded.set(c);
+      if (!this.seen.get(c)) {
+        see(c);
+      } else if (this.queued.get(c)) {
+        this.includedInQueue--;
+      } else {
+        for (final int parent : this.commitGraph.getParents(c)) {
+          toExclude.push(parent);
+        }
+      }
+    }
+  }
+
+  private void see(final int commit) {
+    if (this.seen.get(commit)) {
+      return;
+    }
+    this.seen.set(commit);
+    this.queued.set(commit);
+    this.queue.add(commit, this.commitGraph.getCommitTime(commit));
+    if (!this.excluded.get(commit)) {
+      this.includedInQueue++;
+    }
+  }
+}
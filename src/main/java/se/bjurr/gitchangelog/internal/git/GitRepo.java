@@ -1,36 +1,44 @@
 package se.bjurr.gitchangelog.internal.git;
 
-import static com.google.common.base.Predicates.in;
-import static com.google.common.base.Predicates.not;
-import static com.google.common.base.Throwables.propagate;
-import static com.google.common.collect.Iterables.filter;
-import static com.google.common.collect.Iterators.getLast;
+import static com.google.common.base.Charsets.UTF_8;
+import static com.google.common.cache.CacheBuilder.newBuilder;
 import static com.google.common.collect.Lists.newArrayList;
+import static com.google.common.collect.Lists.newArrayListWithCapacity;
+import static com.google.common.collect.Lists.reverse;
 import static com.google.common.collect.Maps.newHashMap;
-import static com.google.common.collect.Sets.newTreeSet;
+import static com.google.common.collect.Maps.newLinkedHashMap;
+import static com.google.common.collect.Sets.newHashSet;
+import static com.google.common.hash.Hashing.sha1;
+import static java.util.Collections.sort;
 import static java.util.regex.Pattern.compile;
 import static org.eclipse.jgit.lib.Constants.HEAD;
 import static se.bjurr.gitchangelog.api.GitChangelogApiConstants.ZERO_COMMIT;
 
 import com.google.common.base.Optional;
-import com.google.common.collect.Ordering;
+import com.google.common.cache.Cache;
 import java.io.Closeable;
 import java.io.File;
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.Collection;
-import java.util.Comparator;
 import java.util.Date;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.regex.Pattern;
 import org.eclipse.jgit.api.Git;
 import org.eclipse.jgit.lib.AnyObjectId;
+import org.eclipse.jgit.lib.Constants;
 import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectIdOwnerMap;
 import org.eclipse.jgit.lib.Ref;
 import org.eclipse.jgit.lib.Repository;
 import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.revwalk.RevFlag;
+import org.eclipse.jgit.revwalk.RevFlagSet;
 import org.eclipse.jgit.revwalk.RevTag;
 import org.eclipse.jgit.revwalk.RevWalk;
 import org.eclipse.jgit.storage.file.FileRepositoryBuilder;
@@ -42,18 +50,110 @@ import se.bjurr.gitchangelog.internal.git.model.GitCommit;
 import se.bjurr.gitchangelog.internal.git.model.GitTag;
 
 public class GitRepo implements Closeable {
+  /** A commit that is referred to by a tag. */
+  private static class TaggedCommit extends ObjectIdOwnerMap.Entry {
+    private static final long serialVersionUID = 5581493325706915612L;
+
+    private Ref tag;
+
+    public TaggedCommit(final AnyObjectId commit, final Ref tag) {
+      super(commit);
+      this.tag = tag;
+    }
+  }
+
+  private static class TagSortKey implements Comparable<TagSortKey> {
+    private final int commitTime;
+    private final ObjectId commit;
+    private final Ref ref;
+
+    public TagSortKey(final int commitTime, final ObjectId commit, final Ref ref) {
+      this.commitTime = commitTime;
+      this.commit = commit;
+      this.ref = ref;
+    }
+
+    @Override
+    public int compareTo(final TagSortKey o) {
+      if (this.commitTime != o.commitTime) {
+        return this.commitTime > o.commitTime ? -1 : 1;
+      }
+      return o.commit.compareTo(this.commit);
+    }
+  }
+
   private static final Logger LOG = LoggerFactory.getLogger(GitRepo.class);
-  private List<RevCommit> commitsToInclude;
+  /**
+   * What: Root commits per repository and {@link Constants#HEAD}.<br>
+   * Why: Finding them means walking the entire history, it should only be done once.
+   */
+  private static final Cache<RootCommitsCacheKey, List<ObjectId>> rootCommitsPerHead =
+      newBuilder() //
+          .maximumSize(100) //
+          .build();
   private Git git;
   private final Repository repository;
   private final RevWalk revWalk;
+  /** Read when present, to walk commits without parsing them. */
+  private final Optional<CommitGraphFile> commitGraphFile;
+  private final CommitGraph commitGraph;
+  /** Set on the commits that are between from and to, while the tags are populated. */
+  private final RevFlag included;
+  /** Set on the commits that the tag mapping walk has reached. */
+  private final RevFlag reached;
+  /** Set on the commits that have been mapped to a tag. */
+  private final RevFlag mapped;
+  private final RevFlagSet walkFlags = new RevFlagSet();
+  private RefSnapshot refSnapshot;
+  /** All tags, in name order, with the commit they peel to. Resolved once, when first needed. */
+  private Map<Ref, ObjectId> peeledTags;
+  /** The commits that are tagged, to check walked commits against. */
+  private Set<ObjectId> peeledTagTargets;
+  private List<ObjectId> rootCommits;
+  /** Present if the changelog index, in <code>.git/changelog-index</code>, should be used. */
+  private final ChangelogIndex changelogIndex;
+  /** Present if this is given back to the pool, instead of being closed. */
+  private final GitRepoPool pool;
+  private final GitRepoPoolKey poolKey;
+  /** Of the commit graph file, when it was opened. */
+  private final long commitGraphFileModified;
 
   public GitRepo() {
     this.repository = null;
     this.revWalk = null;
+    this.commitGraphFile = null;
+    this.commitGraph = null;
+    this.included = null;
+    this.reached = null;
+    this.mapped = null;
+    this.changelogIndex = null;
+    this.pool = null;
+    this.poolKey = null;
+    this.commitGraphFileModified = 0L;
   }
 
   public GitRepo(final File repo) throws GitChangelogRepositoryException {
+    this(repo, false);
+  }
+
+  /**
+   * @param useChangelogIndex If the changelog index, in <code>.git/changelog-index</code>, should be
+   *     used. Changelogs are then read from the index when nothing they depend on has changed, and
+   *     commits are only parsed if they are not already in the index.
+   */
+  public GitRepo(final File repo, final boolean useChangelogIndex)
+      throws GitChangelogRepositoryException {
+    this(repo, useChangelogIndex, null, null);
+  }
+
+  GitRepo(
+      final File repo,
+      final boolean useChangelogIndex,
+      final GitRepoPool pool,
+      final GitRepoPoolKey poolKey)
+      throws GitChangelogRepositoryException {
+    this.pool = pool;
+    this.poolKey = poolKey;
     try {
       File repoFile = new File(repo.getAbsolutePath());
       final File gitRepoFile = new File(repo.getAbsolutePath() + "/.git");
@@ -70,15 +170,38 @@ public class GitRepo implements Closeable {
       }
       this.repository = builder.build();
       this.revWalk = new RevWalk(this.repository);
+      this.commitGraphFileModified = CommitGraphFile.lastModified(this.repository.getDirectory());
+      this.commitGraphFile = CommitGraphFile.open(this.repository.getDirectory());
+      this.commitGraph = new CommitGraph(this.revWalk, this.commitGraphFile);
+      this.included = this.revWalk.newFlag("INCLUDED");
+      this.reached = this.revWalk.newFlag("REACHED");
+      this.mapped = this.revWalk.newFlag("MAPPED");
+      this.walkFlags.add(this.included);
+      this.walkFlags.add(this.reached);
+      this.walkFlags.add(this.mapped);
       this.git = new Git(this.repository);
+      if (useChangelogIndex) {
+        this.changelogIndex = ChangelogIndex.load(this.repository.getDirectory());
+      } else {
+        this.changelogIndex = null;
+      }
     } catch (final IOException e) {
       throw new GitChangelogRepositoryException(
           "Could not use GIT repo in " + repo.getAbsolutePath(), e);
     }
   }
 
+  /** Gives this back to the {@link GitRepoPool}, if it came from there, or closes it. */
   @Override
   public void close() throws IOException {
+    if (this.pool != null) {
+      this.pool.release(this, this.poolKey);
+    } else {
+      closeRepository();
+    }
+  }
+
+  void closeRepository() throws IOException {
     this.git.close();
     this.repository.close();
     revWalk.dispose();
@@ -91,9 +214,29 @@ public class GitRepo implements Closeable {
     }
   }
 
+  /**
+   * Forgets what may have changed in the repository since it was last used. Like tags and {@link
+   * Constants#HEAD}. Commits already parsed are kept in the {@link RevWalk}, but the {@link
+   * CommitGraph} forgets them, so that it does not grow with every changelog.
+   */
+  void reset() {
+    this.revWalk.reset();
+    this.commitGraph.reset();
+    this.refSnapshot = null;
+    this.peeledTags = null;
+    this.peeledTagTargets = null;
+    this.rootCommits = null;
+  }
+
+  /** @return True if the commit graph file has been written, or removed, since this was opened. */
+  boolean isStale() {
+    return this.commitGraphFileModified
+        != CommitGraphFile.lastModified(this.repository.getDirectory());
+  }
+
   public ObjectId getCommit(final String fromCommit) throws GitChangelogRepositoryException {
     if (fromCommit.startsWith(ZERO_COMMIT)) {
-      return firstCommit();
+      return rootCommits().get(0);
     }
     try {
       return this.repository.resolve(fromCommit);
@@ -103,8 +246,9 @@ public class GitRepo implements Closeable {
   }
 
   /**
-   * @param from From, but not including, this commit. Except for the {@link
-   *     GitChangelogApiConstants#ZERO_COMMIT}, it is included.
+   * @param from From, but not including, this commit. The root commits, those without parents,
+   *     are never included. So from {@link GitChangelogApiConstants#ZERO_COMMIT} is every commit but
+   *     the root commits.
    * @param to To and including this commit.
    */
   public GitRepoData getGitRepoData(
@@ -116,26 +260,94 @@ public class GitRepo implements Closeable {
     try {
       final String originUrl =
           this.git.getRepository().getConfig().getString("remote", "origin", "url");
+      if (this.changelogIndex == null) {
+        final List<GitTag> gitTags = gitTags(from, to, untaggedName, ignoreTagsIfNameMatches);
+        return new GitRepoData(originUrl, gitTags);
+      }
+      final String key = getChangelogIndexKey(from, to, untaggedName, ignoreTagsIfNameMatches);
+      final Optional<List<GitTag>> indexedGitTags = this.changelogIndex.getGitTags(key);
+      if (indexedGitTags.isPresent()) {
+        return new GitRepoData(originUrl, indexedGitTags.get());
+      }
       final List<GitTag> gitTags = gitTags(from, to, untaggedName, ignoreTagsIfNameMatches);
+      this.changelogIndex.putGitTags(key, gitTags);
+      try {
+        this.changelogIndex.save();
+      } catch (final IOException e) {
+        LOG.error("Could not save changelog index in " + this.repository.getDirectory(), e);
+      }
       return new GitRepoData(originUrl, gitTags);
     } catch (final Exception e) {
       throw new GitChangelogRepositoryException(toString(), e);
     }
   }
 
-  public ObjectId getRef(final String fromRef) throws GitChangelogRepositoryException {
+  /**
+   * The same as {@link #getGitRepoData(ObjectId, ObjectId, String, Optional)}, for each of <code>
+   * froms</code>, to the same <code>to</code>. The commits of all of them are mapped to tags in one
+   * walk. A commit is mapped to the same tag, whatever the range, since every path from <code>to
+   * </code> to a commit in a range stays within that range.
+   */
+  public List<GitRepoData> getGitRepoData(
+      final List<ObjectId> froms,
+      final ObjectId to,
+      final String untaggedName,
+      final Optional<String> ignoreTagsIfNameMatches)
+      throws GitChangelogRepositoryException {
     try {
-      for (final Ref foundRef : getAllRefs().values()) {
-        if (foundRef.getName().endsWith(fromRef)) {
-          final Ref ref = getAllRefs().get(foundRef.getName());
-          final Ref peeledRef = this.repository.peel(ref);
-          if (peeledRef.getPeeledObjectId() != null) {
-            return peeledRef.getPeeledObjectId();
-          } else {
-            return ref.getObjectId();
+      final String originUrl =
+          this.git.getRepository().getConfig().getString("remote", "origin", "url");
+      final List<List<GitTag>> gitTagsPerFrom = newArrayList();
+      final List<ObjectId> notIndexed = newArrayList();
+      for (final ObjectId from : froms) {
+        Optional<List<GitTag>> indexedGitTags = Optional.absent();
+        if (this.changelogIndex != null) {
+          indexedGitTags =
+              this.changelogIndex.getGitTags(
+                  getChangelogIndexKey(from, to, untaggedName, ignoreTagsIfNameMatches));
+        }
+        gitTagsPerFrom.add(indexedGitTags.orNull());
+        if (!indexedGitTags.isPresent()) {
+          notIndexed.add(from);
+        }
+      }
+      if (!notIndexed.isEmpty()) {
+        final List<List<GitTag>> gitTags =
+            gitTags(notIndexed, to, untaggedName, ignoreTagsIfNameMatches);
+        for (int i = 0, j = 0; i < froms.size(); i++) {
+          if (gitTagsPerFrom.get(i) == null) {
+            gitTagsPerFrom.set(i, gitTags.get(j++));
+            if (this.changelogIndex != null) {
+              this.changelogIndex.putGitTags(
+                  getChangelogIndexKey(froms.get(i), to, untaggedName, ignoreTagsIfNameMatches),
+                  gitTagsPerFrom.get(i));
+            }
+          }
+        }
+        if (this.changelogIndex != null) {
+          try {
+            this.changelogIndex.save();
+          } catch (final IOException e) {
+            LOG.error("Could not save changelog index in " + this.repository.getDirectory(), e);
           }
         }
       }
+      final List<GitRepoData> gitRepoData = newArrayList();
+      for (final List<GitTag> gitTags : gitTagsPerFrom) {
+        gitRepoData.add(new GitRepoData(originUrl, gitTags));
+      }
+      return gitRepoData;
+    } catch (final Exception e) {
+      throw new GitChangelogRepositoryException(toString(), e);
+    }
+  }
+
+  public ObjectId getRef(final String fromRef) throws GitChangelogRepositoryException {
+    try {
+      final Optional<Ref> ref = getRefSnapshot().findRef(fromRef);
+      if (ref.isPresent()) {
+        return getRefSnapshot().getPeeledObjectId(ref.get());
+      }
     } catch (final Exception e) {
       throw new GitChangelogRepositoryException(fromRef + " not found in:\n" + toString(), e);
     }
@@ -144,11 +356,7 @@ public class GitRepo implements Closeable {
 
   @Override
   public String toString() {
-    final StringBuilder sb = new StringBuilder();
-    for (final Ref foundRef : getAllRefs().values()) {
-      sb.append(foundRef.getName() + "\n");
-    }
-    return "Repo: " + this.repository + "\n" + sb.toString();
+    return "Repo: " + this.repository + "\n" + getRefSnapshot().getNames();
   }
 
   private boolean addCommitToCurrentTag(
@@ -185,36 +393,79 @@ public class GitRepo implements Closeable {
     }
   }
 
-  private RevCommit firstCommit() {
-    Git git = null;
+  /**
+   * The commits, reachable from {@link Constants#HEAD}, that have no parents. There may be several,
+   * when unrelated histories have been merged. The first is the one reached last when walking
+   * newest commit first.
+   */
+  private List<ObjectId> rootCommits() {
+    if (this.rootCommits == null) {
+      try {
+        final ObjectId head = getRef(HEAD);
+        this.rootCommits =
+            rootCommitsPerHead.get(
+                new RootCommitsCacheKey(this.repository.getDirectory(), head),
+                new Callable<List<ObjectId>>() {
+                  @Override
+                  public List<ObjectId> call() throws Exception {
+                    return findRootCommits(head);
+                  }
+                });
+        if (this.changelogIndex != null) {
+          final List<String> names = newArrayList();
+          for (final ObjectId rootCommit : this.rootCommits) {
+            names.add(rootCommit.getName());
+          }
+          this.changelogIndex.putRootCommits(head.getName(), names);
+        }
+      } catch (final Exception e) {
+        throw new RuntimeException(
+            "Root commits not found in " + this.repository.getDirectory(), e);
+      }
+    }
+    return this.rootCommits;
+  }
+
+  private List<ObjectId> findRootCommits(final ObjectId head) throws IOException {
+    if (this.changelogIndex != null) {
+      final Optional<List<String>> indexed = this.changelogIndex.getRootCommits(head.getName());
+      if (indexed.isPresent()) {
+        final List<ObjectId> rootCommits = newArrayList();
+        for (final String name : indexed.get()) {
+          rootCommits.add(ObjectId.fromString(name));
+        }
+        return rootCommits;
+      }
+    }
+    final RevWalk walk = new RevWalk(this.repository);
     try {
-      git = new Git(this.repository);
-      final AnyObjectId master = getRef(HEAD);
-      final Iterator<RevCommit> itr = git.log().add(master).call().iterator();
-      return getLast(itr);
-    } catch (final Exception e) {
-      throw new RuntimeException("First commit not found in " + this.repository.getDirectory(), e);
+      walk.setRetainBody(false);
+      final List<ObjectId> rootCommits = new CommitGraph(walk, this.commitGraphFile).getRoots(head);
+      // The one reached last is the oldest, if the commit times are right
+      return reverse(rootCommits);
     } finally {
-      if (git != null) {
-        git.close();
-      }
+      walk.dispose();
     }
   }
 
-  private Map<String, Ref> getAllRefs() {
-    return this.repository.getAllRefs();
+  /** The refs are read once, and again after {@link #reset()}. */
+  private RefSnapshot getRefSnapshot() {
+    if (this.refSnapshot == null) {
+      this.refSnapshot = new RefSnapshot(this.repository);
+    }
+    return this.refSnapshot;
   }
 
   private Map<String, RevTag> getAnnotatedTagPerTagName(
       final Optional<String> ignoreTagsIfNameMatches, final List<Ref> tagList) {
     final Map<String, RevTag> tagPerCommit = newHashMap();
+    final Pattern ignoreTags =
+        ignoreTagsIfNameMatches.isPresent() ? compile(ignoreTagsIfNameMatches.get()) : null;
     for (final Ref tag : tagList) {
-      if (ignoreTagsIfNameMatches.isPresent()) {
-        if (compile(ignoreTagsIfNameMatches.get()).matcher(tag.getName()).matches()) {
-          continue;
-        }
+      if (ignoreTags != null && ignoreTags.matcher(tag.getName()).matches()) {
+        continue;
       }
-      final Ref peeledTag = this.repository.peel(tag);
+      final Ref peeledTag = getRefSnapshot().peel(tag);
       if (peeledTag.getPeeledObjectId() != null) {
         try {
           final RevTag revTag = RevTag.parse(this.repository.open(tag.getObjectId()).getBytes());
@@ -227,57 +478,95 @@ public class GitRepo implements Closeable {
     return tagPerCommit;
   }
 
-  private List<RevCommit> getDiffingCommits(final RevCommit from, final RevCommit to)
+  /**
+   * What: Identifies a changelog in the {@link ChangelogIndex}.<br>
+   * Why: It changes with anything that the commits per tag depend on. Like when a tag is moved, or
+   * when history is rewritten so that from, or to, is another commit.
+   */
+  private String getChangelogIndexKey(
+      final ObjectId from,
+      final ObjectId to,
+      final String untaggedName,
+      final Optional<String> ignoreTagsIfNameMatches)
       throws Exception {
-    final RevCommit firstCommit = firstCommit();
-    final List<RevCommit> allInFrom =
-        newArrayList(this.git.log().addRange(firstCommit, from).call());
-    final List<RevCommit> allInTo = newArrayList(this.git.log().addRange(firstCommit, to).call());
-    return newArrayList(filter(allInTo, not(in(allInFrom))));
+    final StringBuilder sb = new StringBuilder();
+    sb.append(from.getName()).append('\n');
+    sb.append(to.getName()).append('\n');
+    for (final ObjectId rootCommit : rootCommits()) {
+      sb.append(rootCommit.getName()).append('\n');
+    }
+    sb.append(untaggedName).append('\n');
+    sb.append(ignoreTagsIfNameMatches.orNull()).append('\n');
+    for (final Entry<Ref, ObjectId> tag : getPeeledTags().entrySet()) {
+      sb.append(tag.getKey().getName())
+          .append(' ')
+          .append(tag.getKey().getObjectId().getName())
+          .append(' ')
+          .append(tag.getValue().getName())
+          .append('\n');
+    }
+    return sha1().hashString(sb, UTF_8).toString();
   }
 
-  private ObjectId getPeeled(final Ref tag) {
-    final Ref peeledTag = this.repository.peel(tag);
-    if (peeledTag.getPeeledObjectId() != null) {
-      return peeledTag.getPeeledObjectId();
-    } else {
-      return tag.getObjectId();
+  private List<RevCommit> getDiffingCommits(final RevCommit from, final RevCommit to)
+      throws Exception {
+    final List<ObjectId> rootCommits = rootCommits();
+    final RevCommit[] excludes = new RevCommit[rootCommits.size() + 1];
+    excludes[0] = from;
+    for (int i = 0; i < rootCommits.size(); i++) {
+      excludes[i + 1] = this.revWalk.lookupCommit(rootCommits.get(i));
     }
+    return new DiffWalk(this.commitGraph).getDiffingCommits(to, excludes);
   }
 
-  private List<Ref> getTagCommitHashSortedByCommitTime(final Collection<Ref> refs) {
-    return Ordering.from(
-            new Comparator<Ref>() {
-              @Override
-              public int compare(final Ref o1, final Ref o2) {
-                final RevCommit revCommit1 = GitRepo.this.revWalk.lookupCommit(getPeeled(o1));
-                try {
-                  GitRepo.this.revWalk.parseHeaders(revCommit1);
-                  final RevCommit revCommit2 = GitRepo.this.revWalk.lookupCommit(getPeeled(o2));
-                  GitRepo.this.revWalk.parseHeaders(revCommit2);
-                  return toGitCommit(revCommit1).compareTo(toGitCommit(revCommit2));
-                } catch (final Exception e) {
-                  throw propagate(e);
-                }
-              }
-            }) //
-        .sortedCopy(refs);
+  /**
+   * Newest tagged commit first, and by hash when commit time is the same. Like the {@link
+   * GitCommit} ordering. The commit time of each tag is looked up once, before sorting.
+   */
+  private List<Ref> getTagCommitHashSortedByCommitTime(final Collection<Ref> refs)
+      throws Exception {
+    final TagSortKey[] sortKeys = new TagSortKey[refs.size()];
+    int i = 0;
+    for (final Ref ref : refs) {
+      final ObjectId peeled = getPeeledTags().get(ref);
+      final int commitTime = this.commitGraph.getCommitTime(this.commitGraph.getPosition(peeled));
+      sortKeys[i++] = new TagSortKey(commitTime, peeled, ref);
+    }
+    Arrays.sort(sortKeys);
+    final List<Ref> sorted = newArrayListWithCapacity(sortKeys.length);
+    for (final TagSortKey sortKey : sortKeys) {
+      sorted.add(sortKey.ref);
+    }
+    return sorted;
   }
 
-  private String getTagName(final Map<String, Ref> tagPerCommitHash, final String thisCommitHash) {
-    return tagPerCommitHash.get(thisCommitHash).getName();
+  private Map<Ref, ObjectId> getPeeledTags() throws Exception {
+    if (this.peeledTags == null) {
+      this.peeledTags = newLinkedHashMap();
+      for (final Ref tag : getRefSnapshot().getTags()) {
+        this.peeledTags.put(tag, getRefSnapshot().getPeeledObjectId(tag));
+      }
+      this.peeledTagTargets = newHashSet(this.peeledTags.values());
+    }
+    return this.peeledTags;
   }
 
-  private Map<String, Ref> getTagPerCommitHash(
-      final Optional<String> ignoreTagsIfNameMatches, final List<Ref> tagList) {
-    final Map<String, Ref> tagPerCommit = newHashMap();
+  private ObjectIdOwnerMap<TaggedCommit> getTagPerCommit(
+      final Optional<String> ignoreTagsIfNameMatches, final List<Ref> tagList) throws Exception {
+    final ObjectIdOwnerMap<TaggedCommit> tagPerCommit = new ObjectIdOwnerMap<>();
+    final Pattern ignoreTags =
+        ignoreTagsIfNameMatches.isPresent() ? compile(ignoreTagsIfNameMatches.get()) : null;
     for (final Ref tag : tagList) {
-      if (ignoreTagsIfNameMatches.isPresent()) {
-        if (compile(ignoreTagsIfNameMatches.get()).matcher(tag.getName()).matches()) {
-          continue;
-        }
+      if (ignoreTags != null && ignoreTags.matcher(tag.getName()).matches()) {
+        continue;
+      }
+      final ObjectId commit = getPeeledTags().get(tag);
+      final TaggedCommit taggedCommit = tagPerCommit.get(commit);
+      if (taggedCommit == null) {
+        tagPerCommit.add(new TaggedCommit(commit, tag));
+      } else {
+        taggedCommit.tag = tag;
       }
-      tagPerCommit.put(getPeeled(tag).getName(), tag);
     }
     return tagPerCommit;
   }
@@ -291,14 +580,107 @@ public class GitRepo implements Closeable {
     final RevCommit from = this.revWalk.lookupCommit(fromObjectId);
     final RevCommit to = this.revWalk.lookupCommit(toObjectId);
 
-    this.commitsToInclude = getDiffingCommits(from, to);
+    final List<RevCommit> commitsToInclude = getDiffingCommits(from, to);
+    for (final RevCommit commit : commitsToInclude) {
+      commit.add(this.included);
+    }
+    try {
+      return gitTags(tagsBetweenFromAndTo(from, to), to, untaggedName, ignoreTagsIfNameMatches);
+    } finally {
+      for (final RevCommit commit : commitsToInclude) {
+        commit.remove(this.walkFlags);
+      }
+      to.remove(this.walkFlags);
+    }
+  }
+
+  /**
+   * The tags of each range that includes <code>to</code> are those of all of them, with only the
+   * commits of that range. A range that does not include <code>to</code> has no other commits and
+   * is done on its own.
+   */
+  private List<List<GitTag>> gitTags(
+      final List<ObjectId> fromObjectIds,
+      final ObjectId toObjectId,
+      final String untaggedName,
+      final Optional<String> ignoreTagsIfNameMatches)
+      throws Exception {
+    final RevCommit to = this.revWalk.lookupCommit(toObjectId);
 
-    final List<Ref> tagList = tagsBetweenFromAndTo(from, to);
+    final List<Set<String>> commitsPerFrom = newArrayList();
+    final List<RevCommit> commitsToInclude = newArrayList();
+    for (final ObjectId fromObjectId : fromObjectIds) {
+      final List<RevCommit> commits =
+          getDiffingCommits(this.revWalk.lookupCommit(fromObjectId), to);
+      final Set<String> commitNames = newHashSet();
+      for (final RevCommit commit : commits) {
+        commitNames.add(commit.getName());
+      }
+      commitsPerFrom.add(commitNames);
+      if (commitNames.contains(to.getName())) {
+        for (final RevCommit commit : commits) {
+          if (!commit.has(this.included)) {
+            commit.add(this.included);
+            commitsToInclude.add(commit);
+          }
+        }
+      }
+    }
+    List<GitTag> gitTagsOfAll = newArrayList();
+    try {
+      if (!commitsToInclude.isEmpty()) {
+        gitTagsOfAll =
+            gitTags(includedTags(commitsToInclude), to, untaggedName, ignoreTagsIfNameMatches);
+      }
+    } finally {
+      for (final RevCommit commit : commitsToInclude) {
+        commit.remove(this.walkFlags);
+      }
+      to.remove(this.walkFlags);
+    }
+
+    final List<List<GitTag>> gitTagsPerFrom = newArrayList();
+    for (int i = 0; i < fromObjectIds.size(); i++) {
+      final Set<String> commitNames = commitsPerFrom.get(i);
+      if (!commitNames.contains(to.getName())) {
+        gitTagsPerFrom.add(
+            gitTags(fromObjectIds.get(i), toObjectId, untaggedName, ignoreTagsIfNameMatches));
+        continue;
+      }
+      final List<GitTag> gitTags = newArrayList();
+      for (final GitTag gitTag : gitTagsOfAll) {
+        final List<GitCommit> gitCommits = newArrayList();
+        for (final GitCommit gitCommit : gitTag.getGitCommits()) {
+          if (commitNames.contains(gitCommit.getHash())) {
+            gitCommits.add(gitCommit);
+          }
+        }
+        if (!gitCommits.isEmpty()) {
+          gitTags.add(
+              new GitTag(
+                  gitTag.getName(),
+                  gitTag.findAnnotation().orNull(),
+                  gitCommits,
+                  gitTag.getTagTime()));
+        }
+      }
+      gitTagsPerFrom.add(gitTags);
+    }
+    return gitTagsPerFrom;
+  }
+
+  private List<GitTag> gitTags(
+      final List<Ref> tagList,
+      final RevCommit to,
+      final String untaggedName,
+      final Optional<String> ignoreTagsIfNameMatches)
+      throws Exception {
     /**
      * What: Contains only the commits that are directly referred to by tags.<br>
      * Why: To know if a new tag was found when walking up through the parents.
      */
-    final Map<String, Ref> tagPerCommitHash = getTagPerCommitHash(ignoreTagsIfNameMatches, tagList);
+    final ObjectIdOwnerMap<TaggedCommit> tagPerCommit =
+        getTagPerCommit(ignoreTagsIfNameMatches, tagList);
 
     /**
      * What: Contains only the tags that are annotated.<br>
@@ -307,11 +689,6 @@ public class GitRepo implements Closeable {
     final Map<String, RevTag> annotatedTagPerTagName =
         getAnnotatedTagPerTagName(ignoreTagsIfNameMatches, tagList);
 
-    /**
-     * What: Populated with all included commits, referring to there tags.<br>
-     * Why: To know if a commit is already mapped to a tag, or not.
-     */
-    final Map<String, String> tagPerCommitsHash = newHashMap();
     /**
      * What: Commits per tag.<br>
      * Why: Its what we are here for! =)
@@ -319,15 +696,16 @@ public class GitRepo implements Closeable {
     final Map<String, Set<GitCommit>> commitsPerTag = newHashMap();
     final Map<String, Date> datePerTag = newHashMap();
 
-    populateComitPerTag(
-        from, to, tagPerCommitHash, tagPerCommitsHash, commitsPerTag, datePerTag, null);
-    populateComitPerTag(
-        from, to, tagPerCommitHash, tagPerCommitsHash, commitsPerTag, datePerTag, untaggedName);
+    populateCommitPerTag(to, tagPerCommit, commitsPerTag, datePerTag, untaggedName);
 
     final List<GitTag> tags = newArrayList();
     addToTags(commitsPerTag, untaggedName, null, tags, annotatedTagPerTagName);
+    final List<Ref> taggedRefs = newArrayList();
+    for (final TaggedCommit taggedCommit : tagPerCommit) {
+      taggedRefs.add(taggedCommit.tag);
+    }
     final List<Ref> tagCommitHashSortedByCommitTime =
-        getTagCommitHashSortedByCommitTime(tagPerCommitHash.values());
+        getTagCommitHashSortedByCommitTime(taggedRefs);
     for (final Ref tag : tagCommitHashSortedByCommitTime) {
       addToTags(
           commitsPerTag,
@@ -339,127 +717,137 @@ public class GitRepo implements Closeable {
     return tags;
   }
 
-  private boolean isMappedToAnotherTag(
-      final Map<String, String> tagPerCommitsHash, final String thisCommitHash) {
-    return tagPerCommitsHash.containsKey(thisCommitHash);
-  }
+  /**
+   * Maps every included commit to a tag, in one breadth first walk from <code>to</code>. This is
+   * done iteratively since recursion will result in {@link StackOverflowError} for large repos.
+   * <br>
+   * <br>
+   * A tagged commit is mapped to its own tag when the walk first reaches it. The tag is then carried
+   * to the parents, one generation per step, and a commit is mapped to the first tag that reaches
+   * it. Commits that are not reached by any tag are mapped to <code>untaggedName</code>.<br>
+   * <br>
+   * If several tags reach a commit in the same step, it is mapped to the tag with the lowest name.
+   * Before, the commits were walked one tag at a time, in an order that depended on their commit
+   * times and hashes. So a commit at the same distance from two tags may now be mapped to the other
+   * one of them.
+   */
+  private void populateCommitPerTag(
+      final RevCommit to,
+      final ObjectIdOwnerMap<TaggedCommit> tagPerCommit,
+      final Map<String, Set<GitCommit>> commitsPerTag,
+      final Map<String, Date> datePerTag,
+      final String untaggedName)
+      throws Exception {
+    /**
+     * What: All commits reached by the walk, in the order they were reached.<br>
+     * Why: Those that no tag reaches are the untagged ones.
+     */
+    final List<RevCommit> reachedCommits = newArrayList();
+    List<RevCommit> reachedInThisStep = newArrayList(to);
+    to.add(this.reached);
+    List<TraversalWork> tagsCarriedToThisStep = newArrayList();
+    while (!reachedInThisStep.isEmpty() || !tagsCarriedToThisStep.isEmpty()) {
+      final List<TraversalWork> mappedInThisStep = newArrayList();
+      for (final RevCommit thisCommit : reachedInThisStep) {
+        this.revWalk.parseHeaders(thisCommit);
+        reachedCommits.add(thisCommit);
+        final TaggedCommit taggedCommit = tagPerCommit.get(thisCommit);
+        if (taggedCommit != null) {
+          final String tagName = taggedCommit.tag.getName();
+          mapCommitToTag(commitsPerTag, datePerTag, tagName, thisCommit);
+          mappedInThisStep.add(new TraversalWork(thisCommit, tagName));
+        }
+      }
+      /** If several tags reach the same commit in one step, the lowest tag name wins. */
+      sort(tagsCarriedToThisStep);
+      for (final TraversalWork tw : tagsCarriedToThisStep) {
+        if (!tw.getTo().has(this.mapped)) {
+          mapCommitToTag(commitsPerTag, datePerTag, tw.getCurrentTagName(), tw.getTo());
+          mappedInThisStep.add(tw);
+        }
+      }
 
-  private String noteThatTheCommitWasMapped(
-      final Map<String, String> tagPerCommitsHash,
-      final String currentTagName,
-      final String thisCommitHash) {
-    return tagPerCommitsHash.put(thisCommitHash, currentTagName);
-  }
+      final List<RevCommit> reachedInNextStep = newArrayList();
+      for (final RevCommit thisCommit : reachedInThisStep) {
+        for (final RevCommit parent : thisCommit.getParents()) {
+          if (shouldInclude(parent) && !parent.has(this.reached)) {
+            parent.add(this.reached);
+            reachedInNextStep.add(parent);
+          }
+        }
+      }
+      final List<TraversalWork> tagsCarriedToNextStep = newArrayList();
+      for (final TraversalWork tw : mappedInThisStep) {
+        for (final RevCommit parent : tw.getTo().getParents()) {
+          if (shouldInclude(parent) && !parent.has(this.mapped)) {
+            tagsCarriedToNextStep.add(new TraversalWork(parent, tw.getCurrentTagName()));
+          }
+        }
+      }
+      reachedInThisStep = reachedInNextStep;
+      tagsCarriedToThisStep = tagsCarriedToNextStep;
+    }
 
-  private boolean notFirstIncludedCommit(final ObjectId from, final ObjectId to) {
-    return !from.getName().equals(to.getName());
+    for (final RevCommit thisCommit : reachedCommits) {
+      if (!thisCommit.has(this.mapped)) {
+        mapCommitToTag(commitsPerTag, datePerTag, untaggedName, thisCommit);
+      }
+    }
   }
 
-  /** This can be done recursively but will result in {@link StackOverflowError} for large repos. */
-  private void populateComitPerTag(
-      final RevCommit from,
-      final ObjectId to,
-      final Map<String, Ref> tagPerCommitHash,
-      final Map<String, String> tagPerCommitsHash,
+  private void mapCommitToTag(
       final Map<String, Set<GitCommit>> commitsPerTag,
       final Map<String, Date> datePerTag,
-      final String startingTagName)
-      throws Exception {
-    final Set<TraversalWork> moreWork =
-        populateCommitPerTag(
-            from,
-            to,
-            commitsPerTag,
-            tagPerCommitHash,
-            tagPerCommitsHash,
-            datePerTag,
-            startingTagName);
-    do {
-      final Set<TraversalWork> evenMoreWork = newTreeSet();
-      for (final TraversalWork tw : newArrayList(moreWork)) {
-        moreWork.remove(tw);
-        final Set<TraversalWork> newWork =
-            populateCommitPerTag(
-                from,
-                tw.getTo(),
-                commitsPerTag,
-                tagPerCommitHash,
-                tagPerCommitsHash,
-                datePerTag,
-                tw.getCurrentTagName());
-        evenMoreWork.addAll(newWork);
-      }
-      moreWork.addAll(evenMoreWork);
-      LOG.debug("Work left: " + moreWork.size());
-    } while (!moreWork.isEmpty());
-  }
-
-  private Set<TraversalWork> populateCommitPerTag(
-      final RevCommit from,
-      final ObjectId to,
-      final Map<String, Set<GitCommit>> commitsPerTagName,
-      final Map<String, Ref> tagPerCommitHash,
-      final Map<String, String> tagPerCommitsHash,
-      final Map<String, Date> datePerTag,
-      String currentTagName)
-      throws Exception {
-    final String thisCommitHash = to.getName();
-    if (isMappedToAnotherTag(tagPerCommitsHash, thisCommitHash)) {
-      return newTreeSet();
-    }
-    final RevCommit thisCommit = this.revWalk.lookupCommit(to);
+      final String tagName,
+      final RevCommit thisCommit)
+      throws IOException {
+    thisCommit.add(this.mapped);
     this.revWalk.parseHeaders(thisCommit);
-    if (thisIsANewTag(tagPerCommitHash, thisCommitHash)) {
-      currentTagName = getTagName(tagPerCommitHash, thisCommitHash);
-    }
-    if (currentTagName != null) {
-      if (addCommitToCurrentTag(commitsPerTagName, currentTagName, thisCommit)) {
-        datePerTag.put(currentTagName, new Date(thisCommit.getCommitTime() * 1000L));
-      }
-      noteThatTheCommitWasMapped(tagPerCommitsHash, currentTagName, thisCommitHash);
+    if (addCommitToCurrentTag(commitsPerTag, tagName, thisCommit)) {
+      datePerTag.put(tagName, new Date(thisCommit.getCommitTime() * 1000L));
     }
-    if (notFirstIncludedCommit(from, to)) {
-      final Set<TraversalWork> work = newTreeSet();
-      for (final RevCommit parent : thisCommit.getParents()) {
-        if (shouldInclude(parent)) {
-          work.add(new TraversalWork(parent, currentTagName));
-        }
-      }
-      return work;
-    }
-    return newTreeSet();
   }
 
-  private boolean shouldInclude(final RevCommit candidate) throws Exception {
-    return this.commitsToInclude.contains(candidate);
+  private boolean shouldInclude(final RevCommit candidate) {
+    return candidate.has(this.included);
+  }
+
+  private List<Ref> tagsBetweenFromAndTo(final RevCommit from, final RevCommit to)
+      throws Exception {
+    return includedTags(new DiffWalk(this.commitGraph).getDiffingCommits(to, from));
   }
 
-  private List<Ref> tagsBetweenFromAndTo(final ObjectId from, final ObjectId to) throws Exception {
-    final List<Ref> tagList = this.git.tagList().call();
-    final List<RevCommit> icludedCommits = newArrayList(this.git.log().addRange(from, to).call());
+  /** @return The tags of the commits, in name order. */
+  private List<Ref> includedTags(final List<RevCommit> commits) throws Exception {
+    final Map<Ref, ObjectId> peeledTags = getPeeledTags();
+    final Set<ObjectId> includedTagTargets = newHashSet();
+    for (final RevCommit commit : commits) {
+      if (this.peeledTagTargets.contains(commit)) {
+        includedTagTargets.add(commit);
+      }
+    }
     final List<Ref> includedTags = newArrayList();
-    for (final Ref tag : tagList) {
-      final ObjectId peeledTag = getPeeled(tag);
-      if (icludedCommits.contains(peeledTag)) {
-        includedTags.add(tag);
+    for (final Entry<Ref, ObjectId> tag : peeledTags.entrySet()) {
+      if (includedTagTargets.contains(tag.getValue())) {
+        includedTags.add(tag.getKey());
       }
     }
     return includedTags;
   }
 
-  private boolean thisIsANewTag(
-      final Map<String, Ref> tagsPerCommitHash, final String thisCommitHash) {
-    return tagsPerCommitHash.containsKey(thisCommitHash);
+  private GitCommit toGitCommit(final RevCommit revCommit) {
+    if (this.changelogIndex != null) {
+      GitCommit gitCommit = this.changelogIndex.getCommit(revCommit.getName());
+      if (gitCommit == null) {
+        gitCommit = newGitCommit(revCommit);
+        this.changelogIndex.putCommit(gitCommit);
+      }
+      return gitCommit;
+    }
+    return newGitCommit(revCommit);
   }
 
-  private GitCommit toGitCommit(final RevCommit revCommit) {
-    final Boolean merge = revCommit.getParentCount() > 1;
-    return new GitCommit( //
-        revCommit.getAuthorIdent().getName(), //
-        revCommit.getAuthorIdent().getEmailAddress(), //
-        new Date(revCommit.getCommitTime() * 1000L), //
-        revCommit.getFullMessage(), //
-        revCommit.getId().getName(), //
-        merge);
+  private GitCommit newGitCommit(final RevCommit revCommit) {
+    return new LazyGitCommit(revCommit);
   }
 }
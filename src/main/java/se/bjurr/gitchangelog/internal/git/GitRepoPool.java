@@ -0,0 +1,105 @@
+package se.bjurr.gitchangelog.internal.git;
+
+import static com.google.common.cache.CacheBuilder.newBuilder;
+import static java.util.concurrent.TimeUnit.MINUTES;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.RemovalListener;
+import com.google.common.cache.RemovalNotification;
+import java.io.File;
+import java.io.IOException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import se.bjurr.gitchangelog.api.exceptions.GitChangelogRepositoryException;
+
+/**
+ * Keeps opened {@link GitRepo}s, that are not in use, so that the next changelog of the same
+ * repository does not have to open it again. The repository, its pack indexes and refs, and the
+ * commits already parsed are then reused.<br>
+ * <br>
+ * A {@link GitRepo} is taken out of the pool with {@link #acquire(File, boolean)}, and is only used
+ * by one caller at a time. When it is closed, it is reset and given back to the pool. If there is
+ * already one in the pool for the same repository, it is closed instead. Those not used for {@link
+ * #IDLE_MINUTES} are closed.
+ */
+public class GitRepoPool {
+  private static final Logger LOG = LoggerFactory.getLogger(GitRepoPool.class);
+  private static final int MAX_IDLE = 10;
+  private static final int IDLE_MINUTES = 10;
+
+  private static final GitRepoPool INSTANCE = new GitRepoPool(MAX_IDLE, IDLE_MINUTES);
+
+  private final Cache<GitRepoPoolKey, GitRepo> idle;
+
+  GitRepoPool(final int maxIdle, final long idleMinutes) {
+    this.idle =
+        newBuilder() //
+            .maximumSize(maxIdle) //
+            .expireAfterAccess(idleMinutes, MINUTES) //
+            .removalListener(
+                new RemovalListener<GitRepoPoolKey, GitRepo>() {
+                  @Override
+                  public void onRemoval(
+                      final RemovalNotification<GitRepoPoolKey, GitRepo> notification) {
+                    if (notification.wasEvicted()) {
+                      closeRepository(notification.getValue());
+                    }
+                  }
+                }) //
+            .build();
+  }
+
+  public static GitRepoPool gitRepoPool() {
+    return INSTANCE;
+  }
+
+  /**
+   * @return A {@link GitRepo} that no one else uses, until it is closed. See {@link
+   *     GitRepo#GitRepo(File, boolean)}.
+   */
+  public GitRepo acquire(final File repo, final boolean useChangelogIndex)
+      throws GitChangelogRepositoryException {
+    final GitRepoPoolKey key = new GitRepoPoolKey(repo.getAbsoluteFile(), useChangelogIndex);
+    this.idle.cleanUp();
+    final GitRepo gitRepo = this.idle.asMap().remove(key);
+    if (gitRepo != null) {
+      if (!gitRepo.isStale()) {
+        return gitRepo;
+      }
+      closeRepository(gitRepo);
+    }
+    return new GitRepo(repo, useChangelogIndex, this, key);
+  }
+
+  /** Closes all {@link GitRepo}s that are not in use. */
+  public void clear() {
+    for (final GitRepoPoolKey key : this.idle.asMap().keySet()) {
+      final GitRepo gitRepo = this.idle.asMap().remove(key);
+      if (gitRepo != null) {
+        closeRepository(gitRepo);
+      }
+    }
+  }
+
+  void release(final GitRepo gitRepo, final GitRepoPoolKey key) {
+    try {
+      gitRepo.reset();
+    } catch (final RuntimeException e) {
+      LOG.warn("Could not reset " + key + ", will not reuse it.", e);
+      closeRepository(gitRepo);
+      return;
+    }
+    final GitRepo pooled = this.idle.asMap().putIfAbsent(key, gitRepo);
+    if (pooled != null && pooled != gitRepo) {
+      closeRepository(gitRepo);
+    }
+  }
+
+  private void closeRepository(final GitRepo gitRepo) {
+    try {
+      gitRepo.closeRepository();
+    } catch (final IOException e) {
+      LOG.error(e.getMessage(), e);
+    }
+  }
+}
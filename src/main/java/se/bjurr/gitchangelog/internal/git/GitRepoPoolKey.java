@@ -0,0 +1,60 @@
+package se.bjurr.gitchangelog.internal.git;
+
+import java.io.File;
+
+class GitRepoPoolKey {
+  private final File repo;
+  private final boolean useChangelogIndex;
+
+  public GitRepoPoolKey(File repo, boolean useChangelogIndex) {
+    this.repo = repo;
+    this.useChangelogIndex = useChangelogIndex;
+  }
+
+  public File getRepo() {
+    return repo;
+  }
+
+  public boolean useChangelogIndex() {
+    return useChangelogIndex;
+  }
+
+  @Override
+  public int hashCode() {
+    final int prime = 31;
+    int result = 1;
+    result = prime * result + (repo == null ? 0 : repo.hashCode());
+    result = prime * result + (useChangelogIndex ? 1231 : 1237);
+    return result;
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (this == obj) {
+      return true;
+    }
+    if (obj == null) {
+      return false;
+    }
+    if (getClass() != obj.getClass()) {
+      return false;
+    }
+    GitRepoPoolKey other = (GitRepoPoolKey) obj;
+    if (repo == null) {
+      if (other.repo != null) {
+        return false;
+      }
+    } else if (!repo.equals(other.repo)) {
+      return false;
+    }
+    if (useChangelogIndex != other.useChangelogIndex) {
+      return false;
+    }
+    return true;
+  }
+
+  @Override
+  public String toString() {
+    return "GitRepoPoolKey [repo=" + repo + ", useChangelogIndex=" + useChangelogIndex + "]";
+  }
+}
@@ -0,0 +1,60 @@
+package se.bjurr.gitchangelog.internal.git;
+
+import static org.eclipse.jgit.util.RawParseUtils.author;
+import static org.eclipse.jgit.util.RawParseUtils.commitMessage;
+import static org.eclipse.jgit.util.RawParseUtils.decode;
+import static org.eclipse.jgit.util.RawParseUtils.parseEncoding;
+import static org.eclipse.jgit.util.RawParseUtils.parsePersonIdent;
+
+import java.util.Date;
+import org.eclipse.jgit.lib.PersonIdent;
+import org.eclipse.jgit.revwalk.RevCommit;
+import se.bjurr.gitchangelog.internal.git.model.GitCommit;
+
+/**
+ * A {@link GitCommit} that keeps the raw commit, and decodes the author and message from it when
+ * they are first asked for. Commits that are filtered out, before that, are never decoded.
+ */
+final class LazyGitCommit extends GitCommit {
+  private final byte[] raw;
+  private volatile PersonIdent authorIdent;
+  private volatile String message;
+
+  public LazyGitCommit(final RevCommit revCommit) {
+    super(
+        new Date(revCommit.getCommitTime() * 1000L),
+        revCommit.getId().getName(),
+        revCommit.getParentCount() > 1);
+    this.raw = revCommit.getRawBuffer();
+  }
+
+  @Override
+  public String getAuthorEmailAddress() {
+    return getAuthorIdent().getEmailAddress();
+  }
+
+  @Override
+  public String getAuthorName() {
+    return getAuthorIdent().getName();
+  }
+
+  @Override
+  public String getMessage() {
+    if (this.message == null) {
+      final int messageStart = commitMessage(this.raw, 0);
+      if (messageStart < 0) {
+        this.message = "";
+      } else {
+        this.message = decode(parseEncoding(this.raw), this.raw, messageStart, this.raw.length);
+      }
+    }
+    return this.message;
+  }
+
+  private PersonIdent getAuthorIdent() {
+    if (this.authorIdent == null) {
+      this.authorIdent = parsePersonIdent(this.raw, author(this.raw, 0));
+    }
+    return this.authorIdent;
+  }
+}
@@ -0,0 +1,126 @@
+package se.bjurr.gitchangelog.internal.git;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static com.google.common.collect.Maps.newHashMap;
+import static org.eclipse.jgit.lib.Constants.R_TAGS;
+
+import com.google.common.base.Optional;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.Ref;
+import org.eclipse.jgit.lib.Repository;
+
+/**
+ * The refs of a repository, read once. Refs are found by the end of their name, like <code>master
+ * </code> for <code>refs/heads/master</code>, with a binary search among the reversed names. Found
+ * refs, and peeled refs, are remembered so that they are only looked up once.
+ */
+class RefSnapshot {
+  private final Repository repository;
+  /** In the order of {@link Repository#getAllRefs()}, that is by name. */
+  private final List<Ref> refs;
+  /** Indexes in {@link #refs}, sorted by reversed name. */
+  private final Integer[] bySuffix;
+  private final String[] reversedNames;
+  private final Map<String, Optional<Ref>> refPerSuffix = newHashMap();
+  private final Map<String, Ref> peeledPerName = newHashMap();
+  private String names;
+
+  public RefSnapshot(final Repository repository) {
+    this.repository = repository;
+    this.refs = newArrayList(repository.getAllRefs().values());
+    this.reversedNames = new String[this.refs.size()];
+    this.bySuffix = new Integer[this.refs.size()];
+    for (int i = 0; i < this.refs.size(); i++) {
+      this.reversedNames[i] = reverse(this.refs.get(i).getName());
+      this.bySuffix[i] = i;
+    }
+    Arrays.sort(
+        this.bySuffix,
+        new Comparator<Integer>() {
+          @Override
+          public int compare(final Integer o1, final Integer o2) {
+            return RefSnapshot.this.reversedNames[o1].compareTo(RefSnapshot.this.reversedNames[o2]);
+          }
+        });
+  }
+
+  /** @return The first ref, by name, with a name that ends with <code>suffix</code>. */
+  public Optional<Ref> findRef(final String suffix) {
+    Optional<Ref> found = this.refPerSuffix.get(suffix);
+    if (found == null) {
+      final String reversedSuffix = reverse(suffix);
+      int low = 0;
+      int high = this.bySuffix.length;
+      while (low < high) {
+        final int mid = (low + high) >>> 1;
+        if (this.reversedNames[this.bySuffix[mid]].compareTo(reversedSuffix) < 0) {
+          low = mid + 1;
+        } else {
+          high = mid;
+        }
+      }
+      int first = -1;
+      for (int i = low;
+          i < this.bySuffix.length
+              && this.reversedNames[this.bySuffix[i]].startsWith(reversedSuffix);
+          i++) {
+        if (first == -1 || this.bySuffix[i] < first) {
+          first = this.bySuffix[i];
+        }
+      }
+      found = first == -1 ? Optional.<Ref>absent() : Optional.of(this.refs.get(first));
+      this.refPerSuffix.put(suffix, found);
+    }
+    return found;
+  }
+
+  /** @return The tags, by name. */
+  public List<Ref> getTags() {
+    final List<Ref> tags = newArrayList();
+    for (final Ref ref : this.refs) {
+      if (ref.getName().startsWith(R_TAGS)) {
+        tags.add(ref);
+      }
+    }
+    return tags;
+  }
+
+  /** @return The ref, with its peeled object id if it is an annotated tag. */
+  public Ref peel(final Ref ref) {
+    Ref peeled = this.peeledPerName.get(ref.getName());
+    if (peeled == null) {
+      peeled = this.repository.peel(ref);
+      this.peeledPerName.put(ref.getName(), peeled);
+    }
+    return peeled;
+  }
+
+  /** @return The commit that the ref points at, through any annotated tag. */
+  public ObjectId getPeeledObjectId(final Ref ref) {
+    final Ref peeled = peel(ref);
+    if (peeled.getPeeledObjectId() != null) {
+      return peeled.getPeeledObjectId();
+    }
+    return ref.getObjectId();
+  }
+
+  /** @return Names of all refs, one per line. */
+  public String getNames() {
+    if (this.names == null) {
+      final StringBuilder sb = new StringBuilder();
+      for (final Ref ref : this.refs) {
+        sb.append(ref.getName() + "\n");
+      }
+      this.names = sb.toString();
+    }
+    return this.names;
+  }
+
+  private static String reverse(final String string) {
+    return new StringBuilder(string).reverse().toString();
+  }
+}
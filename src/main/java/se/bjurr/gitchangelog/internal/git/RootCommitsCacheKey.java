@@ -0,0 +1,65 @@
+package se.bjurr.gitchangelog.internal.git;
+
+import java.io.File;
+import org.eclipse.jgit.lib.ObjectId;
+
+class RootCommitsCacheKey {
+  private final File directory;
+  private final ObjectId head;
+
+  public RootCommitsCacheKey(File directory, ObjectId head) {
+    this.directory = directory;
+    this.head = head.copy();
+  }
+
+  public File getDirectory() {
+    return directory;
+  }
+
+  public ObjectId getHead() {
+    return head;
+  }
+
+  @Override
+  public int hashCode() {
+    final int prime = 31;
+    int result = 1;
+    result = prime * result + (directory == null ? 0 : directory.hashCode());
+    result = prime * result + (head == null ? 0 : head.hashCode());
+    return result;
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (this == obj) {
+      return true;
+    }
+    if (obj == null) {
+      return false;
+    }
+    if (getClass() != obj.getClass()) {
+      return false;
+    }
+    RootCommitsCacheKey other = (RootCommitsCacheKey) obj;
+    if (directory == null) {
+      if (other.directory != null) {
+        return false;
+      }
+    } else if (!directory.equals(other.directory)) {
+      return false;
+    }
+    if (head == null) {
+      if (other.head != null) {
+        return false;
+      }
+    } else if (!head.equals(other.head)) {
+      return false;
+    }
+    return true;
+  }
+
+  @Override
+  public String toString() {
+    return "RootCommitsCacheKey [directory=" + directory + ", head=" + head.getName() + "]";
+  }
+}
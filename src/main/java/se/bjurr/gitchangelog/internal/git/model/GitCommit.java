@@ -2,6 +2,10 @@ package se.bjurr.gitchangelog.internal.git.model;
 
 import java.util.Date;
 
+/**
+ * A commit in the changelog. Subclasses may decode the author and message when they are first asked
+ * for, so they are always read with the getters.
+ */
 public class GitCommit implements Comparable<GitCommit> {
   private final String authorEmailAddress;
   private final String authorName;
@@ -25,6 +29,14 @@ public class GitCommit implements Comparable<GitCommit> {
     this.merge = merge;
   }
 
+  /**
+   * For subclasses that override {@link #getAuthorName()}, {@link #getAuthorEmailAddress()} and
+   * {@link #getMessage()}.
+   */
+  protected GitCommit(Date commitTime, String hash, Boolean merge) {
+    this(null, null, commitTime, null, hash, merge);
+  }
+
   @Override
   public int compareTo(GitCommit o) {
     int compareTo = o.commitTime.compareTo(this.commitTime);
@@ -34,30 +46,24 @@ public class GitCommit implements Comparable<GitCommit> {
     return compareTo;
   }
 
+  /**
+   * The hash identifies the commit, with its author and message. They are not compared, so that
+   * commits that decode them lazily are not decoded.
+   */
   @Override
   public boolean equals(Object obj) {
     if (this == obj) {
       return true;
     }
-    if (obj == null) {
-      return false;
-    }
-    if (getClass() != obj.getClass()) {
+    if (!(obj instanceof GitCommit)) {
       return false;
     }
     GitCommit other = (GitCommit) obj;
-    if (this.authorEmailAddress == null) {
-      if (other.authorEmailAddress != null) {
-        return false;
-      }
-    } else if (!this.authorEmailAddress.equals(other.authorEmailAddress)) {
-      return false;
-    }
-    if (this.authorName == null) {
-      if (other.authorName != null) {
+    if (this.hash == null) {
+      if (other.hash != null) {
         return false;
       }
-    } else if (!this.authorName.equals(other.authorName)) {
+    } else if (!this.hash.equals(other.hash)) {
       return false;
     }
     if (this.commitTime == null) {
@@ -67,13 +73,6 @@ public class GitCommit implements Comparable<GitCommit> {
     } else if (!this.commitTime.equals(other.commitTime)) {
       return false;
     }
-    if (this.hash == null) {
-      if (other.hash != null) {
-        return false;
-      }
-    } else if (!this.hash.equals(other.hash)) {
-      return false;
-    }
     if (this.merge == null) {
       if (other.merge != null) {
         return false;
@@ -81,13 +80,6 @@ public class GitCommit implements Comparable<GitCommit> {
     } else if (!this.merge.equals(other.merge)) {
       return false;
     }
-    if (this.message == null) {
-      if (other.message != null) {
-        return false;
-      }
-    } else if (!this.message.equals(other.message)) {
-      return false;
-    }
     return true;
   }
 
@@ -115,14 +107,9 @@ public class GitCommit implements Comparable<GitCommit> {
   public int hashCode() {
     final int prime = 31;
     int result = 1;
-    result =
-        prime * result
-            + ((this.authorEmailAddress == null) ? 0 : this.authorEmailAddress.hashCode());
-    result = prime * result + ((this.authorName == null) ? 0 : this.authorName.hashCode());
     result = prime * result + ((this.commitTime == null) ? 0 : this.commitTime.hashCode());
     result = prime * result + ((this.hash == null) ? 0 : this.hash.hashCode());
     result = prime * result + ((this.merge == null) ? 0 : this.merge.hashCode());
-    result = prime * result + ((this.message == null) ? 0 : this.message.hashCode());
     return result;
   }
 
@@ -130,20 +117,15 @@ public class GitCommit implements Comparable<GitCommit> {
     return this.merge;
   }
 
+  /** Without the author and message, that may not be decoded yet. */
   @Override
   public String toString() {
-    return "GitCommit [authorEmailAddress="
-        + this.authorEmailAddress
-        + ", authorName="
-        + this.authorName
-        + ", commitTime="
+    return "GitCommit [commitTime="
         + this.commitTime
         + ", hash="
         + this.hash
         + ", merge="
         + this.merge
-        + ", message="
-        + this.message
         + "]";
   }
 }
@@ -0,0 +1,154 @@
+package se.bjurr.gitchangelog.internal.integrations.cache;
+
+import static com.google.common.base.Charsets.UTF_8;
+import static com.google.common.base.Optional.fromNullable;
+import static com.google.common.collect.Maps.newHashMap;
+import static com.google.common.collect.Maps.newLinkedHashMap;
+import static java.lang.System.currentTimeMillis;
+
+import com.google.common.base.Optional;
+import com.google.gson.Gson;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.Iterator;
+import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import se.bjurr.gitchangelog.internal.common.AtomicFiles;
+
+/**
+ * One file per integration, <code>JIRA.json</code> and so on, in a folder. A file is read the first
+ * time the integration is used, and written when flushed if anything was put. When flushed, the
+ * file is read again and what was put is merged with it, the newest entry of a key is kept. So
+ * several instances, also in other processes, may use the same folder. Only an instance flushing
+ * at the same time, in another process, may lose what it put. When there are more than max
+ * entries, of an integration, the ones that were put first are removed. If a file cannot be read
+ * it is simply rebuilt.
+ */
+class FileIntegrationCache implements IntegrationCache {
+  private static final Logger LOG = LoggerFactory.getLogger(FileIntegrationCache.class);
+  private static final Gson gson = new Gson();
+  private static final int VERSION = 1;
+  /** Held while a file is read and written again, by instances in this process. */
+  private static final Object FLUSH_LOCK = new Object();
+
+  private static class CacheData {
+    private int version;
+    private Map<String, IntegrationCacheEntry> entries;
+  }
+
+  private final File directory;
+  private final int maxEntries;
+  /** Entries per integration, in the order they were put. */
+  private final Map<String, Map<String, IntegrationCacheEntry>> entriesPerIntegration =
+      newHashMap();
+  /** Entries per integration, put since the last flush. */
+  private final Map<String, Map<String, IntegrationCacheEntry>> putPerIntegration = newHashMap();
+
+  FileIntegrationCache(final File directory, final int maxEntries) {
+    this.directory = directory;
+    this.maxEntries = maxEntries;
+  }
+
+  @Override
+  public synchronized Optional<IntegrationCacheEntry> get(
+      final String integration, final String key) {
+    return fromNullable(getEntries(integration).get(key));
+  }
+
+  @Override
+  public synchronized void put(final String integration, final String key, final String value) {
+    final IntegrationCacheEntry entry = new IntegrationCacheEntry(value, currentTimeMillis());
+    putNewest(getEntries(integration), key, entry);
+    Map<String, IntegrationCacheEntry> put = this.putPerIntegration.get(integration);
+    if (put == null) {
+      put = newLinkedHashMap();
+      this.putPerIntegration.put(integration, put);
+    }
+    put.remove(key);
+    put.put(key, entry);
+  }
+
+  @Override
+  public synchronized void flush() throws IOException {
+    synchronized (FLUSH_LOCK) {
+      for (final Map.Entry<String, Map<String, IntegrationCacheEntry>> put :
+          this.putPerIntegration.entrySet()) {
+        final File file = getFile(put.getKey());
+        final Map<String, IntegrationCacheEntry> entries = read(file);
+        for (final Map.Entry<String, IntegrationCacheEntry> entry : put.getValue().entrySet()) {
+          putNewest(entries, entry.getKey(), entry.getValue());
+        }
+        final CacheData data = new CacheData();
+        data.version = VERSION;
+        data.entries = entries;
+        write(file, data);
+        this.entriesPerIntegration.put(put.getKey(), entries);
+      }
+    }
+    this.putPerIntegration.clear();
+  }
+
+  /** Puts the entry last, unless the entry already there is newer. */
+  private void putNewest(
+      final Map<String, IntegrationCacheEntry> entries,
+      final String key,
+      final IntegrationCacheEntry entry) {
+    final IntegrationCacheEntry existing = entries.get(key);
+    if (existing != null && existing.getTime() > entry.getTime()) {
+      return;
+    }
+    entries.remove(key);
+    entries.put(key, entry);
+    final Iterator<String> oldest = entries.keySet().iterator();
+    while (entries.size() > this.maxEntries) {
+      oldest.next();
+      oldest.remove();
+    }
+  }
+
+  private Map<String, IntegrationCacheEntry> getEntries(final String integration) {
+    Map<String, IntegrationCacheEntry> entries = this.entriesPerIntegration.get(integration);
+    if (entries == null) {
+      entries = read(getFile(integration));
+      this.entriesPerIntegration.put(integration, entries);
+    }
+    return entries;
+  }
+
+  private File getFile(final String integration) {
+    return new File(this.directory, integration + ".json");
+  }
+
+  private static Map<String, IntegrationCacheEntry> read(final File file) {
+    final Map<String, IntegrationCacheEntry> entries = newLinkedHashMap();
+    if (!file.exists()) {
+      return entries;
+    }
+    try (Reader reader = new InputStreamReader(new FileInputStream(file), UTF_8)) {
+      final CacheData data = gson.fromJson(reader, CacheData.class);
+      if (data != null && data.version == VERSION && data.entries != null) {
+        entries.putAll(data.entries);
+      }
+    } catch (final Exception e) {
+      LOG.warn("Could not read " + file + ", it will be rebuilt.", e);
+      entries.clear();
+    }
+    return entries;
+  }
+
+  private static void write(final File file, final CacheData data) throws IOException {
+    AtomicFiles.write(
+        file,
+        outputStream -> {
+          try (Writer writer = new OutputStreamWriter(outputStream, UTF_8)) {
+            gson.toJson(data, writer);
+          }
+        });
+  }
+}
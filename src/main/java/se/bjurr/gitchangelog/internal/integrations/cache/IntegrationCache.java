@@ -0,0 +1,20 @@
+package se.bjurr.gitchangelog.internal.integrations.cache;
+
+import com.google.common.base.Optional;
+import java.io.IOException;
+
+/**
+ * Keeps what was fetched from integrations, as strings, between runs. The default implementation
+ * keeps it in files, see {@link IntegrationCacheFactory}, and another may be injected with {@link
+ * IntegrationCacheFactory#setIntegrationCache(IntegrationCache)}. It may be used by several threads
+ * at the same time.
+ */
+public interface IntegrationCache {
+  /** @param integration Like <code>JIRA</code>, each integration has its own keys. */
+  Optional<IntegrationCacheEntry> get(String integration, String key);
+
+  void put(String integration, String key, String value);
+
+  /** Stores what was put, called when a changelog is done with the cache. */
+  void flush() throws IOException;
+}
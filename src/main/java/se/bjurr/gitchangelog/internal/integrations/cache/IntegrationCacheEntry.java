@@ -0,0 +1,20 @@
+package se.bjurr.gitchangelog.internal.integrations.cache;
+
+public class IntegrationCacheEntry {
+  private final String value;
+  /** When it was put, in millis. */
+  private final long time;
+
+  public IntegrationCacheEntry(final String value, final long time) {
+    this.value = value;
+    this.time = time;
+  }
+
+  public String getValue() {
+    return this.value;
+  }
+
+  public long getTime() {
+    return this.time;
+  }
+}
@@ -0,0 +1,38 @@
+package se.bjurr.gitchangelog.internal.integrations.cache;
+
+import static com.google.common.base.Optional.absent;
+
+import com.google.common.base.Optional;
+import java.io.File;
+import se.bjurr.gitchangelog.internal.settings.Settings;
+
+public class IntegrationCacheFactory {
+
+  private static IntegrationCache integrationCache;
+
+  public static synchronized void reset() {
+    integrationCache = null;
+  }
+
+  /** Used instead of {@link Settings#getIntegrationCacheDirectory()}, if set. */
+  public static synchronized void setIntegrationCache(final IntegrationCache integrationCache) {
+    IntegrationCacheFactory.integrationCache = integrationCache;
+  }
+
+  /**
+   * A new cache, reading the files in {@link Settings#getIntegrationCacheDirectory()}, each time.
+   * Caches using the same folder merge what they put with the files when they flush.
+   */
+  public static synchronized Optional<IntegrationCache> getIntegrationCache(
+      final Settings settings) {
+    if (integrationCache != null) {
+      return Optional.of(integrationCache);
+    }
+    if (!settings.getIntegrationCacheDirectory().isPresent()) {
+      return absent();
+    }
+    final File directory = new File(settings.getIntegrationCacheDirectory().get());
+    return Optional.<IntegrationCache>of(
+        new FileIntegrationCache(directory, settings.getIntegrationCacheMaxEntries()));
+  }
+}
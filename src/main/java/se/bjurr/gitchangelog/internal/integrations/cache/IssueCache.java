@@ -0,0 +1,142 @@
+package se.bjurr.gitchangelog.internal.integrations.cache;
+
+import static com.google.common.base.Optional.absent;
+import static java.lang.System.currentTimeMillis;
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static org.slf4j.LoggerFactory.getLogger;
+
+import com.google.common.base.Optional;
+import com.google.gson.Gson;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.slf4j.Logger;
+import se.bjurr.gitchangelog.internal.settings.Settings;
+import se.bjurr.gitchangelog.internal.settings.SettingsIssueType;
+
+/**
+ * Issues, fetched from integrations, kept in the {@link IntegrationCache} as JSON. An issue is
+ * found if it was kept within the time to live of its integration. That an issue was not found is
+ * also kept, and remembered within {@link Settings#getIntegrationCacheNotFoundTtlMinutes()}. If
+ * {@link Settings#isOffline()} everything kept is found, however old.<br>
+ * <br>
+ * Issues are also kept in memory, found or not, for as long as this is used. Changelogs created
+ * with the same instance ask for each issue once.
+ */
+public class IssueCache {
+  private static final Logger LOG = getLogger(IssueCache.class);
+  private static final Gson gson = new Gson();
+  /** Kept as the value of an issue that was not found. */
+  private static final String NOT_FOUND = "null";
+
+  private final Optional<IntegrationCache> cache;
+  private final Settings settings;
+  private final Map<String, Optional<Object>> lookedUp = new ConcurrentHashMap<>();
+
+  public IssueCache(final Settings settings) {
+    this.cache = IntegrationCacheFactory.getIntegrationCache(settings);
+    this.settings = settings;
+  }
+
+  /** @param server Where the issue is from, issues from different servers are kept apart. */
+  public <T> Optional<T> get(
+      final SettingsIssueType type, final String server, final String issue, final Class<T> clazz) {
+    final String key = getKey(type, server, issue);
+    final Optional<Object> lookedUpIssue = this.lookedUp.get(key);
+    if (lookedUpIssue != null && lookedUpIssue.isPresent()) {
+      return Optional.of(clazz.cast(lookedUpIssue.get()));
+    }
+    if (!this.cache.isPresent()) {
+      return absent();
+    }
+    final Optional<IntegrationCacheEntry> entry =
+        this.cache.get().get(type.name(), server + " " + issue);
+    if (!entry.isPresent() || NOT_FOUND.equals(entry.get().getValue())) {
+      return absent();
+    }
+    if (isExpired(entry.get(), getTtlMinutes(type))) {
+      return absent();
+    }
+    try {
+      final T found = gson.fromJson(entry.get().getValue(), clazz);
+      this.lookedUp.put(key, Optional.<Object>of(found));
+      return Optional.of(found);
+    } catch (final Exception e) {
+      LOG.warn("Could not read " + issue + " from cache", e);
+      return absent();
+    }
+  }
+
+  /**
+   * @return True if the issue was not found, when asked for through this, or when kept in the cache
+   *     within its time to live.
+   */
+  public boolean isNotFound(
+      final SettingsIssueType type, final String server, final String issue) {
+    final String key = getKey(type, server, issue);
+    final Optional<Object> lookedUpIssue = this.lookedUp.get(key);
+    if (lookedUpIssue != null) {
+      return !lookedUpIssue.isPresent();
+    }
+    if (!this.cache.isPresent()) {
+      return false;
+    }
+    final Optional<IntegrationCacheEntry> entry =
+        this.cache.get().get(type.name(), server + " " + issue);
+    if (!entry.isPresent()
+        || !NOT_FOUND.equals(entry.get().getValue())
+        || isExpired(entry.get(), this.settings.getIntegrationCacheNotFoundTtlMinutes())) {
+      return false;
+    }
+    this.lookedUp.put(key, Optional.absent());
+    return true;
+  }
+
+  public void put(
+      final SettingsIssueType type, final String server, final String issue, final Object value) {
+    this.lookedUp.put(getKey(type, server, issue), Optional.of(value));
+    if (this.cache.isPresent()) {
+      this.cache.get().put(type.name(), server + " " + issue, gson.toJson(value));
+    }
+  }
+
+  public void putNotFound(final SettingsIssueType type, final String server, final String issue) {
+    this.lookedUp.put(getKey(type, server, issue), Optional.absent());
+    if (this.cache.isPresent()) {
+      this.cache.get().put(type.name(), server + " " + issue, NOT_FOUND);
+    }
+  }
+
+  public void flush() {
+    if (this.cache.isPresent()) {
+      try {
+        this.cache.get().flush();
+      } catch (final IOException e) {
+        LOG.warn("Could not store issues in cache", e);
+      }
+    }
+  }
+
+  private static String getKey(
+      final SettingsIssueType type, final String server, final String issue) {
+    return type.name() + " " + server + " " + issue;
+  }
+
+  private boolean isExpired(final IntegrationCacheEntry entry, final int ttlMinutes) {
+    final long age = currentTimeMillis() - entry.getTime();
+    return !this.settings.isOffline() && age > MINUTES.toMillis(ttlMinutes);
+  }
+
+  private int getTtlMinutes(final SettingsIssueType type) {
+    switch (type) {
+      case JIRA:
+        return this.settings.getJiraCacheTtlMinutes();
+      case GITHUB:
+        return this.settings.getGitHubCacheTtlMinutes();
+      case GITLAB:
+        return this.settings.getGitLabCacheTtlMinutes();
+      default:
+        return 0;
+    }
+  }
+}
@@ -3,76 +3,199 @@ package se.bjurr.gitchangelog.internal.integrations.github;
 import static com.google.common.base.Optional.absent;
 import static com.google.common.base.Optional.of;
 import static com.google.common.base.Splitter.on;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static java.util.concurrent.Executors.newFixedThreadPool;
+import static se.bjurr.gitchangelog.api.GitChangelogApiConstants.DEFAULT_GITHUB_PAGES_IN_PARALLEL;
 
 import com.google.common.base.Optional;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import retrofit2.Call;
 import retrofit2.Response;
 import se.bjurr.gitchangelog.api.exceptions.GitChangelogIntegrationException;
 
+/**
+ * Finds issues by number. Either all issues are fetched, once, and every issue is found among them,
+ * or every issue is fetched by its number. The first page of all issues tells how many pages there
+ * are, and all of them are fetched if that is fewer requests than the issues that will be asked
+ * for. The rest of the pages are then fetched at the same time.<br>
+ * <br>
+ * All requests respect the rate limit of GitHub, see {@link GitHubRateLimit}. A request that is
+ * rejected by the rate limit is done again, after waiting.
+ */
 public class GitHubHelper {
 
   private static Pattern PAGE_PATTERN = Pattern.compile("page=([0-9]+)>");
+  private static final int MAX_ATTEMPTS = 3;
   private final GitHubService service;
+  private final int pagesInParallel;
+  private final GitHubRateLimit rateLimit = new GitHubRateLimit();
+  /** Issues per number, fetched with all issues or one at a time. */
+  private final Map<String, GitHubIssue> issuesPerNumber = new ConcurrentHashMap<>();
+
+  private boolean prepared;
+  /** True if all issues are in {@link #issuesPerNumber}. */
+  private volatile boolean allIssuesFetched;
 
   public GitHubHelper(GitHubService service) {
+    this(service, DEFAULT_GITHUB_PAGES_IN_PARALLEL);
+  }
+
+  public GitHubHelper(GitHubService service, int pagesInParallel) {
     this.service = service;
+    this.pagesInParallel = max(pagesInParallel, 1);
   }
 
-  public Optional<GitHubIssue> getIssueFromAll(String issue)
-      throws GitChangelogIntegrationException {
+  /**
+   * Decides, once, if all issues should be fetched, given the number of issues that will be asked
+   * for with {@link #getIssue(String)}.
+   */
+  public synchronized void prepareLookups(int lookups) throws GitChangelogIntegrationException {
+    if (prepared) {
+      return;
+    }
+    prepared = true;
+
+    Response<List<GitHubIssue>> response = getIssues(1);
+    Optional<Integer> nextPage = getPage(response, "next");
+    Optional<Integer> lastPage = getPage(response, "last");
+    if (nextPage.isPresent() && lastPage.isPresent() && lastPage.get() - 1 > lookups) {
+      // Fewer requests to get each issue by its number
+      return;
+    }
+    if (nextPage.isPresent() && lastPage.isPresent()) {
+      getIssues(nextPage.get(), lastPage.get());
+    } else {
+      while (nextPage.isPresent()) {
+        response = getIssues(nextPage.get());
+        nextPage = getPage(response, "next");
+      }
+    }
+    allIssuesFetched = true;
+  }
+
+  public Optional<GitHubIssue> getIssue(String issue) throws GitChangelogIntegrationException {
     if (issue.startsWith("#")) {
       issue = issue.substring(1);
     }
+    prepareLookups(1);
 
-    int page = 1;
-    while (page > 0) {
-      final Call<List<GitHubIssue>> call = service.issues(page);
-      page = -1;
+    GitHubIssue found = issuesPerNumber.get(issue);
+    if (found != null) {
+      return of(found);
+    }
+    if (allIssuesFetched) {
+      return absent();
+    }
 
-      try {
-        final Response<List<GitHubIssue>> response = call.execute();
+    final Call<GitHubIssue> call = service.issue(issue);
+    try {
+      final Response<GitHubIssue> response = execute(call);
+      if (response.code() == 404) {
+        return absent();
+      }
+      if (!response.isSuccessful()) {
+        throw new GitChangelogIntegrationException(
+            "Request:"
+                + response.raw().request().toString()
+                + "\nError:\n"
+                + response.errorBody().string());
+      }
+      issuesPerNumber.put(issue, response.body());
+      return of(response.body());
+    } catch (final IOException | InterruptedException e) {
+      throw new GitChangelogIntegrationException(issue, e);
+    }
+  }
 
-        if (!response.isSuccessful()) {
-          throw new GitChangelogIntegrationException(
-              "Request:"
-                  + response.raw().request().toString()
-                  + "\nError:\n"
-                  + response.errorBody().string());
-        }
+  /** Fetches the pages, {@link #pagesInParallel} at a time. */
+  private void getIssues(int fromPage, int toPage) throws GitChangelogIntegrationException {
+    final ExecutorService executor = newFixedThreadPool(min(pagesInParallel, toPage - fromPage + 1));
+    try {
+      final List<Future<?>> futures = new ArrayList<>();
+      for (int page = fromPage; page <= toPage; page++) {
+        final int p = page;
+        futures.add(executor.submit(() -> getIssues(p)));
+      }
+      for (final Future<?> future : futures) {
+        future.get();
+      }
+    } catch (final ExecutionException e) {
+      if (e.getCause() instanceof GitChangelogIntegrationException) {
+        throw (GitChangelogIntegrationException) e.getCause();
+      }
+      throw new GitChangelogIntegrationException("pages " + fromPage + "-" + toPage, e.getCause());
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new GitChangelogIntegrationException("pages " + fromPage + "-" + toPage, e);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
 
-        // Pagination
-        if (response.headers().get("Link") != null) {
-          final String link = response.headers().get("Link");
-          String parsedPage = null;
-          PART:
-          for (final String part : on(',').split(link)) {
-            for (final String piece : on(';').split(part)) {
-              if ("rel=\"next\"".equals(piece.trim()) && parsedPage != null) {
-                // Previous piece pointed to next
-                page = Integer.parseInt(parsedPage);
-                break PART;
-              } else if (piece.contains("&page=")) {
-                final Matcher match = PAGE_PATTERN.matcher(piece);
-                if (match.find()) {
-                  parsedPage = match.group(1);
-                }
-              }
-            }
-          }
-        }
+  /** Fetches a page of all issues and adds them to {@link #issuesPerNumber}. */
+  private Response<List<GitHubIssue>> getIssues(int page)
+      throws GitChangelogIntegrationException {
+    final Call<List<GitHubIssue>> call = service.issues(page);
+    try {
+      final Response<List<GitHubIssue>> response = execute(call);
 
-        for (final GitHubIssue gitHubIssue : response.body()) {
-          if (issue.equals(gitHubIssue.getNumber())) {
-            return of(gitHubIssue);
+      if (!response.isSuccessful()) {
+        throw new GitChangelogIntegrationException(
+            "Request:"
+                + response.raw().request().toString()
+                + "\nError:\n"
+                + response.errorBody().string());
+      }
+
+      for (final GitHubIssue gitHubIssue : response.body()) {
+        issuesPerNumber.putIfAbsent(gitHubIssue.getNumber(), gitHubIssue);
+      }
+      return response;
+    } catch (final IOException | InterruptedException e) {
+      throw new GitChangelogIntegrationException("page " + page, e);
+    }
+  }
+
+  /** Waits for the rate limit, and tries again if rejected by it. */
+  private <T> Response<T> execute(Call<T> call) throws IOException, InterruptedException {
+    for (int attempt = 1; ; attempt++) {
+      rateLimit.await();
+      final Response<T> response = call.execute();
+      if (!rateLimit.update(response.code(), response.headers()) || attempt == MAX_ATTEMPTS) {
+        return response;
+      }
+      call = call.clone();
+    }
+  }
+
+  /** @return The page that the <code>Link</code> header points to with the relation. */
+  private Optional<Integer> getPage(Response<?> response, String rel) {
+    final String link = response.headers().get("Link");
+    if (link == null) {
+      return absent();
+    }
+    for (final String part : on(',').split(link)) {
+      String parsedPage = null;
+      for (final String piece : on(';').split(part)) {
+        if (("rel=\"" + rel + "\"").equals(piece.trim()) && parsedPage != null) {
+          // Previous piece pointed to the page
+          return of(Integer.parseInt(parsedPage));
+        } else if (piece.contains("&page=")) {
+          final Matcher match = PAGE_PATTERN.matcher(piece);
+          if (match.find()) {
+            parsedPage = match.group(1);
           }
         }
-
-      } catch (final IOException e) {
-        throw new GitChangelogIntegrationException(issue, e);
       }
     }
     return absent();
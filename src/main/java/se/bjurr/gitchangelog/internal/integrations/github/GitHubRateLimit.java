@@ -0,0 +1,57 @@
+package se.bjurr.gitchangelog.internal.integrations.github;
+
+import static java.lang.System.currentTimeMillis;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.slf4j.LoggerFactory.getLogger;
+
+import java.util.concurrent.atomic.AtomicLong;
+import okhttp3.Headers;
+import org.slf4j.Logger;
+
+/**
+ * The rate limit of GitHub, as told by the responses, shared by all requests of a {@link
+ * GitHubHelper}. When a response says that there are no requests left, with <code>
+ * X-RateLimit-Remaining: 0</code>, or that requests should wait, with <code>Retry-After</code>, all
+ * requests wait until the limit is reset.
+ */
+class GitHubRateLimit {
+  private static final Logger LOG = getLogger(GitHubRateLimit.class);
+
+  /** Time, in millis, when requests may be done again. */
+  private final AtomicLong waitUntil = new AtomicLong();
+
+  /** Waits, if the rate limit is exceeded. */
+  void await() throws InterruptedException {
+    long wait = waitUntil.get() - currentTimeMillis();
+    if (wait > 0) {
+      LOG.info("GitHub rate limit exceeded, waiting " + SECONDS.convert(wait, MILLISECONDS) + "s");
+      Thread.sleep(wait);
+    }
+  }
+
+  /**
+   * Remembers the rate limit given by the response.
+   *
+   * @return True if the request was rejected because of the rate limit, and should be done again.
+   */
+  boolean update(int code, Headers headers) {
+    final String retryAfter = headers.get("Retry-After");
+    final String remaining = headers.get("X-RateLimit-Remaining");
+    final String reset = headers.get("X-RateLimit-Reset");
+    final boolean limitExceeded = "0".equals(remaining) || retryAfter != null;
+    if (retryAfter != null && retryAfter.trim().matches("[0-9]+")) {
+      waitUntil(currentTimeMillis() + SECONDS.toMillis(Long.parseLong(retryAfter.trim())));
+    } else if ("0".equals(remaining) && reset != null && reset.trim().matches("[0-9]+")) {
+      waitUntil(SECONDS.toMillis(Long.parseLong(reset.trim())));
+    }
+    return limitExceeded && (code == 403 || code == 429);
+  }
+
+  private void waitUntil(long time) {
+    long current;
+    do {
+      current = waitUntil.get();
+    } while (time > current && !waitUntil.compareAndSet(current, time));
+  }
+}
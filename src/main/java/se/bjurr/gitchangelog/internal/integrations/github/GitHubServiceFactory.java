@@ -1,11 +1,15 @@
 package se.bjurr.gitchangelog.internal.integrations.github;
 
+import static com.google.common.collect.Maps.newHashMap;
 import static java.util.concurrent.TimeUnit.SECONDS;
+import static se.bjurr.gitchangelog.api.GitChangelogApiConstants.DEFAULT_GITHUB_CACHE_DIRECTORY;
+import static se.bjurr.gitchangelog.api.GitChangelogApiConstants.DEFAULT_GITHUB_CACHE_SIZE;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Optional;
 import java.io.File;
 import java.io.IOException;
+import java.util.Map;
 import okhttp3.Cache;
 import okhttp3.Interceptor;
 import okhttp3.OkHttpClient;
@@ -14,25 +18,87 @@ import okhttp3.Response;
 import retrofit2.Retrofit;
 import retrofit2.converter.gson.GsonConverterFactory;
 
+/**
+ * Creates one service per API, token and cache, and gives the same service every time it is asked
+ * for. All services share the connection pool and dispatcher of one client, so connections are
+ * reused between changelogs.
+ */
 public class GitHubServiceFactory {
   static Interceptor interceptor;
+  /** Holds the connection pool and dispatcher, that all services use. */
+  private static OkHttpClient sharedClient;
+  /** One cache per folder, they may be used at the same time and share the same folder. */
+  private static final Map<String, Cache> cachePerDirectory = newHashMap();
+
+  private static final Map<String, GitHubService> servicePerKey = newHashMap();
 
   @VisibleForTesting
-  public static void setInterceptor(Interceptor interceptor) {
+  public static synchronized void setInterceptor(Interceptor interceptor) {
     GitHubServiceFactory.interceptor = interceptor;
+    servicePerKey.clear();
+  }
+
+  /**
+   * With the cache in {@link
+   * se.bjurr.gitchangelog.api.GitChangelogApiConstants#DEFAULT_GITHUB_CACHE_DIRECTORY}.
+   *
+   * @see #getGitHubService(String, Optional, String, long)
+   */
+  public static GitHubService getGitHubService(String api, final Optional<String> token) {
+    return getGitHubService(api, token, DEFAULT_GITHUB_CACHE_DIRECTORY, DEFAULT_GITHUB_CACHE_SIZE);
   }
 
+  /**
+   * @param cacheDirectory Folder of the HTTP cache. Services with the same folder share the cache,
+   *     with the size of the first one.
+   * @param cacheSize Max size of the cache, in bytes. Nothing is cached if not more than 0.
+   */
   public static synchronized GitHubService getGitHubService(
-      String api, final Optional<String> token) {
+      String api, final Optional<String> token, final String cacheDirectory, final long cacheSize) {
     if (!api.endsWith("/")) {
       api += "/";
     }
-    final File cacheDir = new File(".okhttpcache");
-    cacheDir.mkdir();
-    final Cache cache = new Cache(cacheDir, 1024 * 1024 * 10);
+    final String key = api + "\n" + token.or("") + "\n" + cacheDirectory + "\n" + (cacheSize > 0);
+    GitHubService service = servicePerKey.get(key);
+    if (service == null) {
+      service = createGitHubService(api, token, cacheDirectory, cacheSize);
+      servicePerKey.put(key, service);
+    }
+    return service;
+  }
+
+  /** @return Number of responses, from all caches, that were found in the cache. */
+  public static synchronized int getCacheHitCount() {
+    int hits = 0;
+    for (final Cache cache : cachePerDirectory.values()) {
+      hits += cache.hitCount();
+    }
+    return hits;
+  }
+
+  /** @return Number of responses, from all caches, that were fetched from the network. */
+  public static synchronized int getCacheMissCount() {
+    int misses = 0;
+    for (final Cache cache : cachePerDirectory.values()) {
+      misses += cache.networkCount();
+    }
+    return misses;
+  }
 
-    final OkHttpClient.Builder builder =
-        new OkHttpClient.Builder().cache(cache).connectTimeout(10, SECONDS);
+  private static GitHubService createGitHubService(
+      final String api,
+      final Optional<String> token,
+      final String cacheDirectory,
+      final long cacheSize) {
+    if (sharedClient == null) {
+      sharedClient = new OkHttpClient.Builder().connectTimeout(10, SECONDS).build();
+    }
+
+    final OkHttpClient.Builder builder = sharedClient.newBuilder();
+
+    if (cacheSize > 0) {
+      builder.cache(getCache(cacheDirectory, cacheSize));
+    }
 
     if (token != null && token.isPresent() && !token.get().isEmpty()) {
       builder.addInterceptor(
@@ -65,4 +131,16 @@ public class GitHubServiceFactory {
 
     return retrofit.create(GitHubService.class);
   }
+
+  private static Cache getCache(final String cacheDirectory, final long cacheSize) {
+    final File cacheDir = new File(cacheDirectory);
+    final String key = cacheDir.getAbsolutePath();
+    Cache cache = cachePerDirectory.get(key);
+    if (cache == null) {
+      cacheDir.mkdirs();
+      cache = new Cache(cacheDir, cacheSize);
+      cachePerDirectory.put(key, cache);
+    }
+    return cache;
+  }
 }
@@ -2,21 +2,39 @@ package se.bjurr.gitchangelog.internal.integrations.jira;
 
 import static com.google.common.base.Optional.absent;
 import static com.google.common.base.Optional.of;
+import static com.google.common.collect.Lists.partition;
 import static java.util.concurrent.TimeUnit.MINUTES;
+import static org.slf4j.LoggerFactory.getLogger;
 
 import com.google.common.base.Optional;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import org.slf4j.Logger;
 import se.bjurr.gitchangelog.api.exceptions.GitChangelogIntegrationException;
 import se.bjurr.gitchangelog.internal.integrations.rest.RestClient;
 
 public class DefaultJiraClient extends JiraClient {
+  private static final Logger LOG = getLogger(DefaultJiraClient.class);
 
   private RestClient client;
+  /** Issues found with {@link #prefetchIssues(List, int)}. */
+  private final Map<String, JiraIssue> prefetched = new ConcurrentHashMap<>();
 
   public DefaultJiraClient(String api) {
     super(api);
     this.client = new RestClient(1, MINUTES);
   }
 
+  @Override
+  public JiraClient withHttpCache(File directory) {
+    this.client = client.withHttpCache(directory);
+    return this;
+  }
+
   @Override
   public JiraClient withBasicCredentials(String username, String password) {
     this.client = client.withBasicAuthCredentials(username, password);
@@ -29,8 +47,45 @@ public class DefaultJiraClient extends JiraClient {
     return this;
   }
 
+  /**
+   * The pages of issues are searched for at the same time, with {@link RestClient#getAsync}. Issues
+   * that a search did not return are asked for one at a time, by {@link #getIssue(String)}. The
+   * search may return fewer issues than asked for, the server limits the number of results, and a
+   * moved issue is returned with its new key.
+   */
+  @Override
+  public void prefetchIssues(List<String> issues, int issuesPerRequest) {
+    if (issuesPerRequest <= 1) {
+      return;
+    }
+    final List<CompletableFuture<Void>> searches = new ArrayList<>();
+    for (final List<String> page : partition(issues, issuesPerRequest)) {
+      searches.add(
+          client
+              .getAsync(getSearchEndpoint(page))
+              .thenAccept(
+                  json -> {
+                    if (json.isPresent()) {
+                      prefetched.putAll(toJiraIssues(json.get()));
+                    }
+                  })
+              .exceptionally(
+                  e -> {
+                    LOG.warn("Could not search for " + page + ", will get them one by one", e);
+                    return null;
+                  }));
+    }
+    for (final CompletableFuture<Void> search : searches) {
+      search.join();
+    }
+  }
+
   @Override
   public Optional<JiraIssue> getIssue(String issue) throws GitChangelogIntegrationException {
+    JiraIssue prefetchedIssue = prefetched.get(issue);
+    if (prefetchedIssue != null) {
+      return of(prefetchedIssue);
+    }
     String endpoint = getEndpoint(issue);
     Optional<String> json = client.get(endpoint);
     if (json.isPresent()) {
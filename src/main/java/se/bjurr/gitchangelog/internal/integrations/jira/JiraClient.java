@@ -1,11 +1,19 @@
 package se.bjurr.gitchangelog.internal.integrations.jira;
 
+import static com.google.common.base.Joiner.on;
 import static com.jayway.jsonpath.JsonPath.read;
 
 import com.google.common.base.Optional;
+import com.jayway.jsonpath.Configuration;
 import com.jayway.jsonpath.JsonPath;
+import java.io.File;
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import se.bjurr.gitchangelog.api.exceptions.GitChangelogIntegrationException;
 
 public abstract class JiraClient {
@@ -33,7 +41,41 @@ public abstract class JiraClient {
     return endpoint;
   }
 
+  /**
+   * Searches for all of the issues, with JQL <code>key in (...)</code>. The query is not validated,
+   * so that keys of issues that do not exist are left out of the result instead of failing the
+   * whole search.
+   */
+  protected String getSearchEndpoint(Collection<String> issues) {
+    try {
+      return api
+          + "/rest/api/2/search?jql="
+          + URLEncoder.encode("key in (" + on(',').join(issues) + ")", "UTF-8")
+          + "&fields=parent,summary,issuetype,labels,description,issuelinks&maxResults="
+          + issues.size()
+          + "&validateQuery=false";
+    } catch (final UnsupportedEncodingException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  /** @return The issues, found with {@link #getSearchEndpoint(Collection)}, per key. */
+  protected Map<String, JiraIssue> toJiraIssues(String json) {
+    Map<String, JiraIssue> jiraIssues = new LinkedHashMap<>();
+    Object document = Configuration.defaultConfiguration().jsonProvider().parse(json);
+    List<Object> issues = read(document, "$.issues");
+    for (Object issue : issues) {
+      String key = read(issue, "$.key");
+      jiraIssues.put(key, toJiraIssue(key, issue));
+    }
+    return jiraIssues;
+  }
+
   protected JiraIssue toJiraIssue(String issue, String json) {
+    return toJiraIssue(issue, Configuration.defaultConfiguration().jsonProvider().parse(json));
+  }
+
+  private JiraIssue toJiraIssue(String issue, Object json) {
     String title = read(json, "$.fields.summary");
     String description = read(json, "$.fields.description");
     String type = read(json, "$.fields.issuetype.name");
@@ -50,6 +92,21 @@ public abstract class JiraClient {
     return jiraIssue;
   }
 
+  /**
+   * Get the issues, that will soon be asked for with {@link #getIssue(String)}, in fewer requests
+   * than one per issue. Those not found are asked for one at a time, as if this was not done. Does
+   * nothing by default.
+   */
+  public void prefetchIssues(List<String> issues, int issuesPerRequest) {}
+
+  /**
+   * Keep responses in the folder, between runs, if supported by the client. Does nothing by
+   * default.
+   */
+  public JiraClient withHttpCache(File directory) {
+    return this;
+  }
+
   public abstract JiraClient withBasicCredentials(String username, String password);
 
   public abstract JiraClient withTokenCredentials(String token);
@@ -0,0 +1,99 @@
+package se.bjurr.gitchangelog.internal.integrations.rest;
+
+import static com.google.common.base.Charsets.UTF_8;
+import static com.google.common.base.Optional.absent;
+import static com.google.common.hash.Hashing.sha256;
+
+import com.google.common.base.Optional;
+import com.google.gson.Gson;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import se.bjurr.gitchangelog.internal.common.AtomicFiles;
+
+/**
+ * Responses, with their <code>ETag</code> and <code>Last-Modified</code>, stored in a folder so
+ * that they survive between runs. One file per URL, named by a hash of the URL and the credentials.
+ * A response that cannot be read is simply fetched again.
+ */
+class HttpCache {
+  private static final Logger LOG = LoggerFactory.getLogger(HttpCache.class);
+  private static final Gson gson = new Gson();
+
+  static class HttpCacheEntry {
+    private String url;
+    private String etag;
+    private String lastModified;
+    private String body;
+
+    HttpCacheEntry(
+        final String url, final String etag, final String lastModified, final String body) {
+      this.url = url;
+      this.etag = etag;
+      this.lastModified = lastModified;
+      this.body = body;
+    }
+
+    String getEtag() {
+      return this.etag;
+    }
+
+    String getLastModified() {
+      return this.lastModified;
+    }
+
+    String getBody() {
+      return this.body;
+    }
+  }
+
+  private final File directory;
+
+  HttpCache(final File directory) {
+    this.directory = directory;
+  }
+
+  /** @param credentials Included in the key, responses may differ between users. May be null. */
+  Optional<HttpCacheEntry> get(final String url, final String credentials) {
+    final File file = getFile(url, credentials);
+    if (!file.exists()) {
+      return absent();
+    }
+    try (Reader reader = new InputStreamReader(new FileInputStream(file), UTF_8)) {
+      final HttpCacheEntry entry = gson.fromJson(reader, HttpCacheEntry.class);
+      if (entry == null || !url.equals(entry.url) || entry.body == null) {
+        return absent();
+      }
+      return Optional.of(entry);
+    } catch (final Exception e) {
+      LOG.warn("Could not read " + file + ", it will be fetched again.", e);
+      return absent();
+    }
+  }
+
+  void put(final String url, final String credentials, final HttpCacheEntry entry) {
+    final File file = getFile(url, credentials);
+    try {
+      AtomicFiles.write(
+          file,
+          outputStream -> {
+            try (Writer writer = new OutputStreamWriter(outputStream, UTF_8)) {
+              gson.toJson(entry, writer);
+            }
+          });
+    } catch (final IOException e) {
+      LOG.warn("Could not write " + file, e);
+    }
+  }
+
+  private File getFile(final String url, final String credentials) {
+    final String key = sha256().hashString(credentials + "\n" + url, UTF_8).toString();
+    return new File(this.directory, key + ".json");
+  }
+}
@@ -2,27 +2,51 @@ package se.bjurr.gitchangelog.internal.integrations.rest;
 
 import static com.google.common.base.Optional.absent;
 import static com.google.common.base.Optional.of;
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.cache.CacheBuilder.newBuilder;
 import static com.google.common.io.ByteStreams.toByteArray;
+import static java.net.HttpURLConnection.HTTP_NOT_MODIFIED;
+import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.slf4j.LoggerFactory.getLogger;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Optional;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.io.File;
+import java.io.InputStream;
 import java.io.UnsupportedEncodingException;
 import java.net.HttpURLConnection;
+import java.net.MalformedURLException;
 import java.net.URL;
 import java.util.Base64;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import org.slf4j.Logger;
 import se.bjurr.gitchangelog.api.exceptions.GitChangelogIntegrationException;
+import se.bjurr.gitchangelog.internal.integrations.rest.HttpCache.HttpCacheEntry;
 
 public class RestClient {
   private static Logger logger = getLogger(RestClient.class);
+  private static final int DEFAULT_MAX_REQUESTS_PER_HOST = 8;
   private static RestClient mockedRestClient;
   private final LoadingCache<String, Optional<String>> urlCache;
+  /** Requests, from {@link #getAsync(String)}, that are not done, per URL. */
+  private final ConcurrentMap<String, CompletableFuture<Optional<String>>> inFlight =
+      new ConcurrentHashMap<>();
+  /** Threads that do the requests to a host, at most {@link #maxRequestsPerHost}. */
+  private final ConcurrentMap<String, ExecutorService> executorPerHost = new ConcurrentHashMap<>();
+
+  private int maxRequestsPerHost = DEFAULT_MAX_REQUESTS_PER_HOST;
   private String basicAuthString;
+  private HttpCache httpCache;
 
   public RestClient(final long duration, final TimeUnit cacheExpireAfterAccess) {
     urlCache =
@@ -52,6 +76,59 @@ public class RestClient {
     return this;
   }
 
+  /**
+   * Keep responses in the folder, between runs. A response is revalidated with <code>
+   * If-None-Match</code> and <code>If-Modified-Since</code>, and not fetched again if not modified.
+   */
+  public RestClient withHttpCache(final File directory) {
+    this.httpCache = new HttpCache(directory);
+    return this;
+  }
+
+  /**
+   * Max number of requests, from {@link #getAsync(String)}, to the same host at the same time. Set
+   * before the first request.
+   */
+  public RestClient withMaxRequestsPerHost(final int maxRequestsPerHost) {
+    checkArgument(maxRequestsPerHost > 0, "Must be at least 1, was " + maxRequestsPerHost);
+    this.maxRequestsPerHost = maxRequestsPerHost;
+    return this;
+  }
+
+  /**
+   * Same as {@link #get(String)}, but returns at once. If the same URL is already being requested,
+   * the same future is returned. The future fails with a {@link GitChangelogIntegrationException}.
+   */
+  public CompletableFuture<Optional<String>> getAsync(final String url) {
+    final Optional<String> cached = urlCache.getIfPresent(url);
+    if (cached != null) {
+      return CompletableFuture.completedFuture(cached);
+    }
+    final CompletableFuture<Optional<String>> future = new CompletableFuture<>();
+    final CompletableFuture<Optional<String>> existing = inFlight.putIfAbsent(url, future);
+    if (existing != null) {
+      return existing;
+    }
+    try {
+      getExecutor(url)
+          .execute(
+              () -> {
+                try {
+                  future.complete(get(url));
+                } catch (final Throwable e) {
+                  future.completeExceptionally(e);
+                } finally {
+                  inFlight.remove(url, future);
+                }
+              });
+    } catch (final RejectedExecutionException e) {
+      inFlight.remove(url, future);
+      future.completeExceptionally(
+          new GitChangelogIntegrationException("Problems invoking " + url, e));
+    }
+    return future;
+  }
+
   public Optional<String> get(final String url) throws GitChangelogIntegrationException {
     try {
       return urlCache.get(url);
@@ -72,15 +149,80 @@ public class RestClient {
       if (this.basicAuthString != null) {
         conn.setRequestProperty("Authorization", "Basic " + basicAuthString);
       }
-      return of(getResponse(conn));
+      if (this.httpCache == null) {
+        return of(getResponse(conn));
+      }
+
+      final Optional<HttpCacheEntry> cached = httpCache.get(urlParam, basicAuthString);
+      if (cached.isPresent()) {
+        if (cached.get().getEtag() != null) {
+          conn.setRequestProperty("If-None-Match", cached.get().getEtag());
+        }
+        if (cached.get().getLastModified() != null) {
+          conn.setRequestProperty("If-Modified-Since", cached.get().getLastModified());
+        }
+        if (getResponseCode(conn) == HTTP_NOT_MODIFIED) {
+          logger.info("Not modified:\n" + urlParam);
+          return of(cached.get().getBody());
+        }
+      }
+      final String body = getResponse(conn);
+      final String etag = conn.getHeaderField("ETag");
+      final String lastModified = conn.getHeaderField("Last-Modified");
+      if (etag != null || lastModified != null) {
+        httpCache.put(
+            urlParam, basicAuthString, new HttpCacheEntry(urlParam, etag, lastModified, body));
+      }
+      return of(body);
     } catch (final Exception e) {
       logger.error("Got:\n" + response, e);
-      return absent();
-    } finally {
       if (conn != null) {
-        conn.disconnect();
+        // Read what is left, so that the connection can be reused
+        closeErrorStream(conn);
       }
+      return absent();
+    }
+  }
+
+  /**
+   * The connection is not disconnected, the response is read and closed so that the connection is
+   * kept alive and reused for the next request to the same host.
+   */
+  private void closeErrorStream(final HttpURLConnection conn) {
+    try (InputStream errorStream = conn.getErrorStream()) {
+      if (errorStream != null) {
+        toByteArray(errorStream);
+      }
+    } catch (final Exception e) {
+      conn.disconnect();
+    }
+  }
+
+  private ExecutorService getExecutor(final String url) {
+    String host;
+    try {
+      host = new URL(url).getAuthority();
+    } catch (final MalformedURLException e) {
+      host = "";
     }
+    return executorPerHost.computeIfAbsent(host, this::createExecutor);
+  }
+
+  /** Threads are daemons, and stop when not used, so the executor is never shut down. */
+  private ExecutorService createExecutor(final String host) {
+    final ThreadPoolExecutor executor =
+        new ThreadPoolExecutor(
+            maxRequestsPerHost,
+            maxRequestsPerHost,
+            30,
+            SECONDS,
+            new LinkedBlockingQueue<Runnable>(),
+            new ThreadFactoryBuilder() //
+                .setDaemon(true) //
+                .setNameFormat("rest-" + host + "-%d") //
+                .build());
+    executor.allowCoreThreadTimeOut(true);
+    return executor;
   }
 
   @VisibleForTesting
@@ -94,11 +236,21 @@ public class RestClient {
   @VisibleForTesting
   protected String getResponse(final HttpURLConnection conn) throws Exception {
     if (mockedRestClient == null) {
-      return new String(toByteArray(conn.getInputStream()), "UTF-8");
+      try (InputStream inputStream = conn.getInputStream()) {
+        return new String(toByteArray(inputStream), "UTF-8");
+      }
     }
     return mockedRestClient.getResponse(conn);
   }
 
+  @VisibleForTesting
+  protected int getResponseCode(final HttpURLConnection conn) throws Exception {
+    if (mockedRestClient == null) {
+      return conn.getResponseCode();
+    }
+    return mockedRestClient.getResponseCode(conn);
+  }
+
   public static void mock(final RestClient mock) {
     mockedRestClient = mock;
   }
@@ -0,0 +1,164 @@
+package se.bjurr.gitchangelog.internal.issues;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static java.lang.Character.isHighSurrogate;
+
+import com.google.common.annotations.VisibleForTesting;
+import java.util.ArrayDeque;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import se.bjurr.gitchangelog.internal.settings.SettingsIssue;
+
+/**
+ * Finds the issue patterns that may match a commit message, without running them. A pattern that
+ * starts with a literal, like <code>JIR-[0-9]+</code>, can only match a message that contains that
+ * literal. A message that does not contain it is not scanned with the pattern. The literals of all
+ * patterns are searched for at once, with an Aho-Corasick automaton, in one pass over the
+ * message.<br>
+ * <br>
+ * The patterns that are left are run one at a time, as before. One expression with all of them, as
+ * alternatives, would not find matches that overlap matches of other patterns, so the parsed issues
+ * would not be the same.
+ */
+class IssueMatcher {
+  private static final String META_CHARACTERS = "\\[](){}.*+?^$|";
+
+  private final List<SettingsIssue> issues;
+  /** Per issue, a literal that every match starts with, or empty if not known. */
+  private final String[] requiredPrefixes;
+
+  private final PrefixAutomaton prefixAutomaton;
+
+  IssueMatcher(final List<SettingsIssue> issues) {
+    this.issues = issues;
+    this.requiredPrefixes = new String[issues.size()];
+    for (int i = 0; i < issues.size(); i++) {
+      this.requiredPrefixes[i] = getRequiredPrefix(issues.get(i).getPattern());
+    }
+    this.prefixAutomaton = new PrefixAutomaton(this.requiredPrefixes);
+  }
+
+  /** @return The issues, in the order they were given, with patterns that may match the message. */
+  List<SettingsIssue> getCandidates(final String message) {
+    final BitSet found = this.prefixAutomaton.find(message);
+    final List<SettingsIssue> candidates = newArrayList();
+    for (int i = 0; i < this.issues.size(); i++) {
+      if (this.requiredPrefixes[i].isEmpty() || found.get(i)) {
+        candidates.add(this.issues.get(i));
+      }
+    }
+    return candidates;
+  }
+
+  /**
+   * @return The literal characters that the pattern starts with, and that every match must start
+   *     with. Empty if there are alternatives, or if it starts with anything but a literal.
+   */
+  @VisibleForTesting
+  static String getRequiredPrefix(final String regexp) {
+    if (regexp.indexOf('|') >= 0) {
+      return "";
+    }
+    final StringBuilder prefix = new StringBuilder();
+    for (int i = 0; i < regexp.length(); i++) {
+      final char c = regexp.charAt(i);
+      if (META_CHARACTERS.indexOf(c) >= 0) {
+        if ((c == '?' || c == '*' || c == '{') && prefix.length() > 0) {
+          // The last character may not be there
+          prefix.setLength(prefix.length() - 1);
+          if (prefix.length() > 0 && isHighSurrogate(prefix.charAt(prefix.length() - 1))) {
+            prefix.setLength(prefix.length() - 1);
+          }
+        }
+        break;
+      }
+      prefix.append(c);
+    }
+    return prefix.toString();
+  }
+
+  /**
+   * Finds which of the prefixes a message contains. Each state is a prefix of some of the prefixes,
+   * its failure state is the longest suffix of it that is also a state.
+   */
+  private static class PrefixAutomaton {
+    private final List<Map<Character, Integer>> transitions = newArrayList();
+    private final List<Integer> failures = newArrayList();
+    /** Per state, the indexes of the prefixes that end there. */
+    private final List<BitSet> outputs = newArrayList();
+    /** The indexes of the prefixes that are not empty. */
+    private final BitSet all = new BitSet();
+
+    PrefixAutomaton(final String[] prefixes) {
+      addState();
+      for (int i = 0; i < prefixes.length; i++) {
+        if (prefixes[i].isEmpty()) {
+          continue;
+        }
+        int state = 0;
+        for (int c = 0; c < prefixes[i].length(); c++) {
+          final Character character = prefixes[i].charAt(c);
+          Integer next = this.transitions.get(state).get(character);
+          if (next == null) {
+            next = addState();
+            this.transitions.get(state).put(character, next);
+          }
+          state = next;
+        }
+        this.outputs.get(state).set(i);
+        this.all.set(i);
+      }
+      final Deque<Integer> queue = new ArrayDeque<>(this.transitions.get(0).values());
+      while (!queue.isEmpty()) {
+        final int state = queue.poll();
+        for (final Map.Entry<Character, Integer> transition :
+            this.transitions.get(state).entrySet()) {
+          final int next = transition.getValue();
+          int failure = this.failures.get(state);
+          while (failure != 0 && !this.transitions.get(failure).containsKey(transition.getKey())) {
+            failure = this.failures.get(failure);
+          }
+          final Integer failureNext = this.transitions.get(failure).get(transition.getKey());
+          this.failures.set(next, failureNext == null ? 0 : failureNext);
+          this.outputs.get(next).or(this.outputs.get(this.failures.get(next)));
+          queue.add(next);
+        }
+      }
+    }
+
+    /** @return The indexes of the prefixes that the message contains. */
+    BitSet find(final String message) {
+      final BitSet found = new BitSet();
+      if (this.all.isEmpty()) {
+        return found;
+      }
+      int state = 0;
+      for (int i = 0; i < message.length(); i++) {
+        final Character character = message.charAt(i);
+        Integer next = this.transitions.get(state).get(character);
+        while (next == null && state != 0) {
+          state = this.failures.get(state);
+          next = this.transitions.get(state).get(character);
+        }
+        state = next == null ? 0 : next;
+        if (!this.outputs.get(state).isEmpty()) {
+          found.or(this.outputs.get(state));
+          if (found.equals(this.all)) {
+            break;
+          }
+        }
+      }
+      return found;
+    }
+
+    private int addState() {
+      this.transitions.add(new HashMap<Character, Integer>());
+      this.failures.add(0);
+      this.outputs.add(new BitSet());
+      return this.transitions.size() - 1;
+    }
+  }
+}
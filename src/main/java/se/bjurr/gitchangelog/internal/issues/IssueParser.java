@@ -1,8 +1,14 @@
 package se.bjurr.gitchangelog.internal.issues;
 
+import static com.google.common.base.Predicates.notNull;
+import static com.google.common.collect.Iterables.filter;
+import static com.google.common.collect.Lists.newArrayList;
 import static com.google.common.collect.Maps.newHashMap;
+import static com.google.common.collect.Maps.newLinkedHashMap;
 import static com.google.common.collect.Ordering.usingToString;
-import static java.util.regex.Pattern.compile;
+import static java.lang.Math.min;
+import static java.util.concurrent.Executors.newFixedThreadPool;
+import static java.util.stream.Collectors.toList;
 import static org.slf4j.LoggerFactory.getLogger;
 import static se.bjurr.gitchangelog.internal.integrations.github.GitHubServiceFactory.getGitHubService;
 import static se.bjurr.gitchangelog.internal.settings.SettingsIssueType.CUSTOM;
@@ -13,13 +19,19 @@ import static se.bjurr.gitchangelog.internal.settings.SettingsIssueType.NOISSUE;
 
 import com.google.common.base.Optional;
 import com.google.common.collect.Lists;
+import java.io.File;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.regex.MatchResult;
 import java.util.regex.Matcher;
 import org.slf4j.Logger;
 import se.bjurr.gitchangelog.api.exceptions.GitChangelogIntegrationException;
 import se.bjurr.gitchangelog.internal.git.model.GitCommit;
+import se.bjurr.gitchangelog.internal.integrations.cache.IssueCache;
 import se.bjurr.gitchangelog.internal.integrations.github.GitHubHelper;
 import se.bjurr.gitchangelog.internal.integrations.github.GitHubIssue;
 import se.bjurr.gitchangelog.internal.integrations.github.GitHubLabel;
@@ -29,9 +41,9 @@ import se.bjurr.gitchangelog.internal.integrations.jira.JiraClient;
 import se.bjurr.gitchangelog.internal.integrations.jira.JiraClientFactory;
 import se.bjurr.gitchangelog.internal.integrations.jira.JiraIssue;
 import se.bjurr.gitchangelog.internal.model.ParsedIssue;
-import se.bjurr.gitchangelog.internal.settings.IssuesUtil;
 import se.bjurr.gitchangelog.internal.settings.Settings;
 import se.bjurr.gitchangelog.internal.settings.SettingsIssue;
+import se.bjurr.gitchangelog.internal.settings.SettingsPatterns;
 
 public class IssueParser {
 
@@ -39,10 +51,34 @@ public class IssueParser {
 
   private final List<GitCommit> commits;
   private final Settings settings;
+  private final SettingsPatterns settingsPatterns;
+  /** Null if every parse should use its own. */
+  private final IssueCache issueCache;
 
   public IssueParser(final Settings settings, final List<GitCommit> commits) {
+    this(settings, new SettingsPatterns(settings), commits);
+  }
+
+  public IssueParser(
+      final Settings settings,
+      final SettingsPatterns settingsPatterns,
+      final List<GitCommit> commits) {
+    this(settings, settingsPatterns, commits, null);
+  }
+
+  /**
+   * @param issueCache Shared with the parsers of other changelogs, so that each issue is only
+   *     fetched once from the integrations.
+   */
+  public IssueParser(
+      final Settings settings,
+      final SettingsPatterns settingsPatterns,
+      final List<GitCommit> commits,
+      final IssueCache issueCache) {
     this.settings = settings;
+    this.settingsPatterns = settingsPatterns;
     this.commits = commits;
+    this.issueCache = issueCache;
   }
 
   public Settings getSettings() {
@@ -53,44 +89,74 @@ public class IssueParser {
     return commits;
   }
 
+  /**
+   * If {@link Settings#useParallelIssueParsing()}, the commits are matched in parallel, and the
+   * issues are fetched from integrations in parallel. The issues, and the order of their commits,
+   * are the same either way.
+   */
   public List<ParsedIssue> parseForIssues(final boolean useIntegrationIfConfigured) {
     final Map<String, ParsedIssue> parsedIssuePerIssue = newHashMap();
 
-    final GitHubHelper gitHubHelper = useIntegrationIfConfigured ? createGitHubClient() : null;
-    final JiraClient jiraClient = useIntegrationIfConfigured ? createJiraClient() : null;
-    final GitLabClient gitLabClient = useIntegrationIfConfigured ? createGitLabClient() : null;
+    final boolean fetchFromIntegrations = useIntegrationIfConfigured && !settings.isOffline();
+    final GitHubHelper gitHubHelper = fetchFromIntegrations ? createGitHubClient() : null;
+    final JiraClient jiraClient = fetchFromIntegrations ? createJiraClient() : null;
+    final GitLabClient gitLabClient = fetchFromIntegrations ? createGitLabClient() : null;
+    final IssueCache issueCache = useIntegrationIfConfigured ? getIssueCache() : null;
+
+    final boolean parallel = settings.useParallelIssueParsing();
+    final IssueMatcher patternMatcher = new IssueMatcher(settingsPatterns.getIssues());
+    final List<List<IssueMatch>> matchesPerCommit =
+        (parallel ? commits.parallelStream() : commits.stream())
+            .map(gitCommit -> findMatches(patternMatcher, gitCommit))
+            .collect(toList());
 
-    final List<SettingsIssue> patterns = new IssuesUtil(settings).getIssues();
+    // Each issue is created, once, from its first match, like when matching one commit at a time.
+    // Null if the name of the no issue is found before it is matched.
+    final Map<String, IssueMatch> firstMatchPerIssue = newLinkedHashMap();
+    for (final List<IssueMatch> matches : matchesPerCommit) {
+      for (final IssueMatch match : matches) {
+        if (!firstMatchPerIssue.containsKey(match.getMatchedIssue())) {
+          firstMatchPerIssue.put(match.getMatchedIssue(), match);
+        }
+      }
+      if (matches.isEmpty() && !settings.ignoreCommitsWithoutIssue()) {
+        if (!firstMatchPerIssue.containsKey(settings.getNoIssueName())) {
+          firstMatchPerIssue.put(settings.getNoIssueName(), null);
+        }
+      }
+    }
+    final List<IssueMatch> firstMatches =
+        newArrayList(filter(firstMatchPerIssue.values(), notNull()));
+    prepareLookups(firstMatches, issueCache, gitHubHelper, jiraClient);
+    final List<ParsedIssue> createdIssues =
+        parallel
+            ? createParsedIssuesInParallel(
+                firstMatches, issueCache, gitHubHelper, jiraClient, gitLabClient)
+            : firstMatches
+                .stream()
+                .map(
+                    match ->
+                        createParsedIssue(
+                            match, issueCache, gitHubHelper, jiraClient, gitLabClient))
+                .collect(toList());
+    if (issueCache != null) {
+      issueCache.flush();
+    }
+    for (int i = 0; i < firstMatches.size(); i++) {
+      parsedIssuePerIssue.put(firstMatches.get(i).getMatchedIssue(), createdIssues.get(i));
+    }
 
+    int commit = 0;
     for (final GitCommit gitCommit : commits) {
       boolean commitMappedToAtLeastOneIssue = false;
-      for (final SettingsIssue issuePattern : patterns) {
-        final Matcher issueMatcher =
-            compile(issuePattern.getPattern()).matcher(gitCommit.getMessage());
-        while (issueMatcher.find()) {
-          final String matchedIssue = issueMatcher.group();
-          if (matchedIssue.isEmpty()) {
-            continue;
-          }
-          if (!parsedIssuePerIssue.containsKey(matchedIssue)) {
-            ParsedIssue parsedIssue = null;
-            if (issuePattern.getType() == GITHUB) {
-              parsedIssue = createParsedIssue(gitHubHelper, issuePattern, matchedIssue);
-            } else if (issuePattern.getType() == GITLAB) {
-              final String projectName = settings.getGitLabProjectName().get();
-              parsedIssue = createParsedIssue(gitLabClient, projectName, issuePattern, matchedIssue);
-            } else if (issuePattern.getType() == JIRA) {
-              parsedIssue = createParsedIssue(jiraClient, issuePattern, matchedIssue);
-            } else {
-              parsedIssue = createParsedIssue(issuePattern, issueMatcher, matchedIssue);
-            }
-            parsedIssuePerIssue.put(matchedIssue, parsedIssue);
-          }
-          if (!parsedIssuePerIssue.get(matchedIssue).getGitCommits().contains(gitCommit)) {
-            parsedIssuePerIssue.get(matchedIssue).getGitCommits().add(gitCommit);
-          }
-          commitMappedToAtLeastOneIssue = true;
+      for (final IssueMatch match : matchesPerCommit.get(commit++)) {
+        final List<GitCommit> issueCommits =
+            parsedIssuePerIssue.get(match.getMatchedIssue()).getGitCommits();
+        // Commits are added in order, so it is already added if it is the last one
+        if (issueCommits.isEmpty() || !issueCommits.get(issueCommits.size() - 1).equals(gitCommit)) {
+          issueCommits.add(gitCommit);
         }
+        commitMappedToAtLeastOneIssue = true;
       }
       if (!commitMappedToAtLeastOneIssue && !settings.ignoreCommitsWithoutIssue()) {
         final String issue = null;
@@ -119,7 +185,122 @@ public class IssueParser {
     return usingToString().sortedCopy(parsedIssuePerIssue.values());
   }
 
+  /**
+   * Lets the integrations fetch the issues, that are about to be asked for one at a time, in fewer
+   * requests. Issues that are in the cache are not asked for.
+   */
+  private void prepareLookups(
+      final List<IssueMatch> firstMatches,
+      final IssueCache issueCache,
+      final GitHubHelper gitHubHelper,
+      final JiraClient jiraClient) {
+    if (gitHubHelper == null && jiraClient == null) {
+      return;
+    }
+    final List<String> jiraIssues = newArrayList();
+    int gitHubIssues = 0;
+    for (final IssueMatch match : firstMatches) {
+      final String matchedIssue = match.getMatchedIssue();
+      if (match.getIssuePattern().getType() == JIRA
+          && !issueCache.isNotFound(JIRA, getJiraServer(), matchedIssue)
+          && !issueCache.get(JIRA, getJiraServer(), matchedIssue, JiraIssue.class).isPresent()) {
+        jiraIssues.add(matchedIssue);
+      } else if (match.getIssuePattern().getType() == GITHUB
+          && !issueCache.isNotFound(GITHUB, getGitHubApi(), getNumber(matchedIssue))
+          && !issueCache
+              .get(GITHUB, getGitHubApi(), getNumber(matchedIssue), GitHubIssue.class)
+              .isPresent()) {
+        gitHubIssues++;
+      }
+    }
+    if (jiraClient != null && jiraIssues.size() > 1) {
+      jiraClient.prefetchIssues(jiraIssues, settings.getJiraIssuesPerRequest());
+    }
+    if (gitHubHelper != null && gitHubIssues > 0) {
+      try {
+        gitHubHelper.prepareLookups(gitHubIssues);
+      } catch (final GitChangelogIntegrationException e) {
+        LOG.error("Could not get issues from GitHub", e);
+      }
+    }
+  }
+
+  /**
+   * Creating an issue may wait for an integration, so it is done on threads of its own, {@link
+   * Settings#getIssueLookupsInParallel()} at a time, and not on the common fork-join pool.
+   */
+  private List<ParsedIssue> createParsedIssuesInParallel(
+      final List<IssueMatch> firstMatches,
+      final IssueCache issueCache,
+      final GitHubHelper gitHubHelper,
+      final JiraClient jiraClient,
+      final GitLabClient gitLabClient) {
+    if (firstMatches.isEmpty()) {
+      return newArrayList();
+    }
+    final ExecutorService executor =
+        newFixedThreadPool(min(settings.getIssueLookupsInParallel(), firstMatches.size()));
+    try {
+      final List<Future<ParsedIssue>> futures = new ArrayList<>();
+      for (final IssueMatch match : firstMatches) {
+        futures.add(
+            executor.submit(
+                () -> createParsedIssue(match, issueCache, gitHubHelper, jiraClient, gitLabClient)));
+      }
+      final List<ParsedIssue> createdIssues = new ArrayList<>();
+      for (final Future<ParsedIssue> future : futures) {
+        createdIssues.add(future.get());
+      }
+      return createdIssues;
+    } catch (final ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw new RuntimeException(e.getCause());
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException(e);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private List<IssueMatch> findMatches(
+      final IssueMatcher patternMatcher, final GitCommit gitCommit) {
+    final List<IssueMatch> matches = newArrayList();
+    for (final SettingsIssue issuePattern : patternMatcher.getCandidates(gitCommit.getMessage())) {
+      final Matcher issueMatcher =
+          settingsPatterns.getIssuePattern(issuePattern).matcher(gitCommit.getMessage());
+      while (issueMatcher.find()) {
+        if (!issueMatcher.group().isEmpty()) {
+          matches.add(new IssueMatch(issuePattern, issueMatcher.toMatchResult()));
+        }
+      }
+    }
+    return matches;
+  }
+
+  private ParsedIssue createParsedIssue(
+      final IssueMatch match,
+      final IssueCache issueCache,
+      final GitHubHelper gitHubHelper,
+      final JiraClient jiraClient,
+      final GitLabClient gitLabClient) {
+    final SettingsIssue issuePattern = match.getIssuePattern();
+    final String matchedIssue = match.getMatchedIssue();
+    if (issuePattern.getType() == GITHUB) {
+      return createParsedIssue(issueCache, gitHubHelper, issuePattern, matchedIssue);
+    } else if (issuePattern.getType() == GITLAB) {
+      final String projectName = settings.getGitLabProjectName().get();
+      return createParsedIssue(issueCache, gitLabClient, projectName, issuePattern, matchedIssue);
+    } else if (issuePattern.getType() == JIRA) {
+      return createParsedIssue(issueCache, jiraClient, issuePattern, matchedIssue);
+    }
+    return createParsedIssue(issuePattern, match.getMatchResult(), matchedIssue);
+  }
+
   private ParsedIssue createParsedIssue(
+      final IssueCache issueCache,
       final GitLabClient gitLabClient,
       final String projectName,
       final SettingsIssue issuePattern,
@@ -133,8 +314,10 @@ public class IssueParser {
     }
     final Integer matchedIssue = Integer.parseInt(matchedIssueString);
     try {
-      if (gitLabClient != null && gitLabClient.getIssue(projectName, matchedIssue).isPresent()) {
-        final GitLabIssue gitLabIssue = gitLabClient.getIssue(projectName, matchedIssue).get();
+      final Optional<GitLabIssue> gitLabIssueOpt =
+          getGitLabIssue(issueCache, gitLabClient, projectName, matchedIssue);
+      if (gitLabIssueOpt.isPresent()) {
+        final GitLabIssue gitLabIssue = gitLabIssueOpt.get();
         link = gitLabIssue.getLink();
         title = gitLabIssue.getTitle();
         labels = gitLabIssue.getLabels();
@@ -155,6 +338,13 @@ public class IssueParser {
         labels);
   }
 
+  private IssueCache getIssueCache() {
+    if (this.issueCache != null) {
+      return this.issueCache;
+    }
+    return new IssueCache(settings);
+  }
+
   private GitLabClient createGitLabClient() {
     GitLabClient client = null;
     if (settings.getGitLabServer().isPresent()) {
@@ -169,6 +359,9 @@ public class IssueParser {
     JiraClient jiraClient = null;
     if (settings.getJiraServer().isPresent()) {
       jiraClient = JiraClientFactory.createJiraClient(settings.getJiraServer().get());
+      if (settings.getJiraHttpCacheDirectory().isPresent()) {
+        jiraClient.withHttpCache(new File(settings.getJiraHttpCacheDirectory().get()));
+      }
       if (settings.getJiraUsername().isPresent()) {
         jiraClient.withBasicCredentials(
             settings.getJiraUsername().get(), settings.getJiraPassword().get());
@@ -184,13 +377,18 @@ public class IssueParser {
     if (settings.getGitHubApi().isPresent()) {
       gitHubHelper =
           new GitHubHelper(
-              getGitHubService(settings.getGitHubApi().get(), settings.getGitHubToken()));
+              getGitHubService(
+                  settings.getGitHubApi().get(),
+                  settings.getGitHubToken(),
+                  settings.getGitHubCacheDirectory(),
+                  settings.getGitHubCacheSize()),
+              settings.getGitHubPagesInParallel());
     }
     return gitHubHelper;
   }
 
   private ParsedIssue createParsedIssue(
-      final SettingsIssue issuePattern, final Matcher issueMatcher, final String matchedIssue) {
+      final SettingsIssue issuePattern, final MatchResult issueMatcher, final String matchedIssue) {
     final String link = render(issuePattern.getLink().or(""), issueMatcher, matchedIssue);
     final String title = render(issuePattern.getTitle().or(""), issueMatcher, matchedIssue);
     final String issueType = null;
@@ -209,7 +407,10 @@ public class IssueParser {
   }
 
   private ParsedIssue createParsedIssue(
-      final JiraClient jiraClient, final SettingsIssue issuePattern, final String matchedIssue) {
+      final IssueCache issueCache,
+      final JiraClient jiraClient,
+      final SettingsIssue issuePattern,
+      final String matchedIssue) {
     String link = "";
     String title = "";
     String desc = "";
@@ -217,8 +418,9 @@ public class IssueParser {
     List<String> linkedIssues = null;
     List<String> labels = null;
     try {
-      if (jiraClient != null && jiraClient.getIssue(matchedIssue).isPresent()) {
-        final JiraIssue jiraIssue = jiraClient.getIssue(matchedIssue).get();
+      final Optional<JiraIssue> jiraIssueOpt = getJiraIssue(issueCache, jiraClient, matchedIssue);
+      if (jiraIssueOpt.isPresent()) {
+        final JiraIssue jiraIssue = jiraIssueOpt.get();
         link = jiraIssue.getLink();
         title = jiraIssue.getTitle();
         issueType = jiraIssue.getIssueType();
@@ -242,6 +444,7 @@ public class IssueParser {
   }
 
   private ParsedIssue createParsedIssue(
+      final IssueCache issueCache,
       final GitHubHelper gitHubHelper,
       final SettingsIssue issuePattern,
       final String matchedIssue) {
@@ -250,15 +453,13 @@ public class IssueParser {
     final List<String> linkedIssues = Lists.newArrayList();
     final List<String> labels = Lists.newArrayList();
     try {
-      if (gitHubHelper != null) {
-        Optional<GitHubIssue> issues = gitHubHelper.getIssueFromAll(matchedIssue);
-        if (issues.isPresent()) {
-          final GitHubIssue gitHubIssue = issues.get();
-          link = gitHubIssue.getLink();
-          title = gitHubIssue.getTitle();
-          for (final GitHubLabel label : gitHubIssue.getLabels()) {
-            labels.add(label.getName());
-          }
+      final Optional<GitHubIssue> issues = getGitHubIssue(issueCache, gitHubHelper, matchedIssue);
+      if (issues.isPresent()) {
+        final GitHubIssue gitHubIssue = issues.get();
+        link = gitHubIssue.getLink();
+        title = gitHubIssue.getTitle();
+        for (final GitHubLabel label : gitHubIssue.getLabels()) {
+          labels.add(label.getName());
         }
       }
     } catch (final GitChangelogIntegrationException e) {
@@ -277,7 +478,93 @@ public class IssueParser {
         labels);
   }
 
-  private String render(String string, final Matcher matcher, final String matched) {
+  /** @return The issue from the cache, or else from JIRA. Absent if integrations are not used. */
+  private Optional<JiraIssue> getJiraIssue(
+      final IssueCache issueCache, final JiraClient jiraClient, final String matchedIssue)
+      throws GitChangelogIntegrationException {
+    if (issueCache == null) {
+      return Optional.absent();
+    }
+    final Optional<JiraIssue> cached =
+        issueCache.get(JIRA, getJiraServer(), matchedIssue, JiraIssue.class);
+    if (cached.isPresent()
+        || jiraClient == null
+        || issueCache.isNotFound(JIRA, getJiraServer(), matchedIssue)) {
+      return cached;
+    }
+    final Optional<JiraIssue> fetched = jiraClient.getIssue(matchedIssue);
+    if (fetched.isPresent()) {
+      issueCache.put(JIRA, getJiraServer(), matchedIssue, fetched.get());
+    } else {
+      issueCache.putNotFound(JIRA, getJiraServer(), matchedIssue);
+    }
+    return fetched;
+  }
+
+  /** @return The issue from the cache, or else from GitHub. Absent if integrations are not used. */
+  private Optional<GitHubIssue> getGitHubIssue(
+      final IssueCache issueCache, final GitHubHelper gitHubHelper, final String matchedIssue)
+      throws GitChangelogIntegrationException {
+    if (issueCache == null) {
+      return Optional.absent();
+    }
+    final String number = getNumber(matchedIssue);
+    final Optional<GitHubIssue> cached =
+        issueCache.get(GITHUB, getGitHubApi(), number, GitHubIssue.class);
+    if (cached.isPresent()
+        || gitHubHelper == null
+        || issueCache.isNotFound(GITHUB, getGitHubApi(), number)) {
+      return cached;
+    }
+    final Optional<GitHubIssue> fetched = gitHubHelper.getIssue(number);
+    if (fetched.isPresent()) {
+      issueCache.put(GITHUB, getGitHubApi(), number, fetched.get());
+    } else {
+      issueCache.putNotFound(GITHUB, getGitHubApi(), number);
+    }
+    return fetched;
+  }
+
+  /** @return The issue from the cache, or else from GitLab. Absent if integrations are not used. */
+  private Optional<GitLabIssue> getGitLabIssue(
+      final IssueCache issueCache,
+      final GitLabClient gitLabClient,
+      final String projectName,
+      final Integer matchedIssue)
+      throws GitChangelogIntegrationException {
+    if (issueCache == null) {
+      return Optional.absent();
+    }
+    final String server = settings.getGitLabServer().orNull() + " " + projectName;
+    final String issue = Integer.toString(matchedIssue);
+    final Optional<GitLabIssue> cached = issueCache.get(GITLAB, server, issue, GitLabIssue.class);
+    if (cached.isPresent()
+        || gitLabClient == null
+        || issueCache.isNotFound(GITLAB, server, issue)) {
+      return cached;
+    }
+    final Optional<GitLabIssue> fetched = gitLabClient.getIssue(projectName, matchedIssue);
+    if (fetched.isPresent()) {
+      issueCache.put(GITLAB, server, issue, fetched.get());
+    } else {
+      issueCache.putNotFound(GITLAB, server, issue);
+    }
+    return fetched;
+  }
+
+  private String getJiraServer() {
+    return settings.getJiraServer().orNull();
+  }
+
+  private String getGitHubApi() {
+    return settings.getGitHubApi().orNull();
+  }
+
+  private static String getNumber(final String matchedIssue) {
+    return matchedIssue.startsWith("#") ? matchedIssue.substring(1) : matchedIssue;
+  }
+
+  private String render(String string, final MatchResult matcher, final String matched) {
     string = string.replaceAll("\\$\\{PATTERN_GROUP\\}", matched);
     for (int i = 0; i <= matcher.groupCount(); i++) {
       string =
@@ -292,4 +579,27 @@ public class IssueParser {
     }
     return a;
   }
+
+  /** A match of an issue pattern in a commit message. */
+  private static class IssueMatch {
+    private final SettingsIssue issuePattern;
+    private final MatchResult matchResult;
+
+    IssueMatch(final SettingsIssue issuePattern, final MatchResult matchResult) {
+      this.issuePattern = issuePattern;
+      this.matchResult = matchResult;
+    }
+
+    SettingsIssue getIssuePattern() {
+      return this.issuePattern;
+    }
+
+    MatchResult getMatchResult() {
+      return this.matchResult;
+    }
+
+    String getMatchedIssue() {
+      return this.matchResult.group();
+    }
+  }
 }
@@ -128,7 +128,7 @@ public class MergeRequestParser {
 
 	private GitLabClient createGitLabClient() {
 		GitLabClient client = null;
-		if (settings.getGitLabServer().isPresent()) {
+		if (settings.getGitLabServer().isPresent() && !settings.isOffline()) {
 			final String server = settings.getGitLabServer().get();
 			final String token = settings.getGitLabToken().orNull();
 			client = new GitLabClient(server, token);
@@ -0,0 +1,140 @@
+package se.bjurr.gitchangelog.internal.model;
+
+import static com.google.common.base.Suppliers.memoize;
+import static com.google.common.collect.Lists.newArrayList;
+
+import com.google.common.base.Supplier;
+import java.util.List;
+import se.bjurr.gitchangelog.api.model.Author;
+import se.bjurr.gitchangelog.api.model.Changelog;
+import se.bjurr.gitchangelog.api.model.Commit;
+import se.bjurr.gitchangelog.api.model.Issue;
+import se.bjurr.gitchangelog.api.model.IssueType;
+import se.bjurr.gitchangelog.api.model.MergeRequest;
+import se.bjurr.gitchangelog.api.model.Tag;
+import se.bjurr.gitchangelog.internal.git.model.GitCommit;
+import se.bjurr.gitchangelog.internal.git.model.GitTag;
+
+/**
+ * Same content as a {@link Changelog}, but nothing is transformed until it is asked for. The tags
+ * are transformed one at a time, when iterated, and are not kept. A template that only iterates the
+ * tags will then only have one {@link Tag}, with its commits, issues and authors, at a time.<br>
+ * <br>
+ * What it is transformed from, the {@link GitTag}s with their commits, the parsed issues and merge
+ * requests, is all given when it is created.
+ */
+public class StreamedChangelog {
+  private final Transformer transformer;
+  private final List<GitTag> gitTags;
+  private final List<ParsedIssue> issues;
+  private final List<ParsedMergeRequest> mergeRequests;
+  private final String ownerName;
+  private final String repoName;
+  private final Supplier<List<Commit>> commits;
+  private final Supplier<List<Author>> authors;
+  private final Supplier<List<Issue>> transformedIssues;
+  private final Supplier<List<IssueType>> issueTypes;
+  private final Supplier<List<MergeRequest>> transformedMergeRequests;
+
+  public StreamedChangelog(
+      final Transformer transformer,
+      final List<GitCommit> diff,
+      final List<GitTag> gitTags,
+      final List<ParsedIssue> issues,
+      final List<ParsedMergeRequest> mergeRequests,
+      final String ownerName,
+      final String repoName) {
+    this.transformer = transformer;
+    this.gitTags = gitTags;
+    this.issues = issues;
+    this.mergeRequests = mergeRequests;
+    this.ownerName = ownerName;
+    this.repoName = repoName;
+    this.commits =
+        memoize(
+            new Supplier<List<Commit>>() {
+              @Override
+              public List<Commit> get() {
+                return transformer.toCommits(diff);
+              }
+            });
+    this.authors =
+        memoize(
+            new Supplier<List<Author>>() {
+              @Override
+              public List<Author> get() {
+                return transformer.toAuthors(diff);
+              }
+            });
+    this.transformedIssues =
+        memoize(
+            new Supplier<List<Issue>>() {
+              @Override
+              public List<Issue> get() {
+                return transformer.toIssues(issues);
+              }
+            });
+    this.issueTypes =
+        memoize(
+            new Supplier<List<IssueType>>() {
+              @Override
+              public List<IssueType> get() {
+                return transformer.toIssueTypes(issues);
+              }
+            });
+    this.transformedMergeRequests =
+        memoize(
+            new Supplier<List<MergeRequest>>() {
+              @Override
+              public List<MergeRequest> get() {
+                return transformer.toMergeRequests(mergeRequests);
+              }
+            });
+  }
+
+  public List<Commit> getCommits() {
+    return this.commits.get();
+  }
+
+  public List<MergeRequest> getMergeRequests() {
+    return this.transformedMergeRequests.get();
+  }
+
+  /** Transformed again every time they are iterated. */
+  public Iterable<Tag> getTags() {
+    return this.transformer.toTagIterable(this.gitTags, this.issues, this.mergeRequests);
+  }
+
+  public List<Author> getAuthors() {
+    return this.authors.get();
+  }
+
+  public List<Issue> getIssues() {
+    return this.transformedIssues.get();
+  }
+
+  public List<IssueType> getIssueTypes() {
+    return this.issueTypes.get();
+  }
+
+  public String getOwnerName() {
+    return this.ownerName;
+  }
+
+  public String getRepoName() {
+    return this.repoName;
+  }
+
+  /** @return Everything transformed, and kept, in a {@link Changelog}. */
+  public Changelog toChangelog() {
+    return new Changelog( //
+        getCommits(), //
+        getMergeRequests(), //
+        newArrayList(getTags()), //
+        getAuthors(), //
+        getIssues(), //
+        getIssueTypes(), //
+        this.ownerName, //
+        this.repoName);
+  }
+}
@@ -8,7 +8,6 @@ import static com.google.common.collect.Lists.transform;
 import static com.google.common.collect.Maps.newTreeMap;
 import static com.google.common.collect.Multimaps.index;
 import static java.util.TimeZone.getTimeZone;
-import static java.util.regex.Pattern.compile;
 import static se.bjurr.gitchangelog.internal.common.GitPredicates.ignoreCommits;
 
 import java.text.SimpleDateFormat;
@@ -32,16 +31,24 @@ import se.bjurr.gitchangelog.api.model.MergeRequest;
 import se.bjurr.gitchangelog.api.model.Tag;
 import se.bjurr.gitchangelog.internal.git.model.GitCommit;
 import se.bjurr.gitchangelog.internal.git.model.GitTag;
-import se.bjurr.gitchangelog.internal.settings.IssuesUtil;
 import se.bjurr.gitchangelog.internal.settings.Settings;
 import se.bjurr.gitchangelog.internal.settings.SettingsIssue;
+import se.bjurr.gitchangelog.internal.settings.SettingsPatterns;
 
 public class Transformer {
 
   private final Settings settings;
+  private final SettingsPatterns settingsPatterns;
+  private final Predicate<GitCommit> ignoreCommits;
 
   public Transformer(Settings settings) {
+    this(settings, new SettingsPatterns(settings));
+  }
+
+  public Transformer(Settings settings, SettingsPatterns settingsPatterns) {
     this.settings = settings;
+    this.settingsPatterns = settingsPatterns;
+    this.ignoreCommits = ignoreCommits(settings, settingsPatterns);
   }
 
   public List<Author> toAuthors(List<GitCommit> gitCommits) {
@@ -82,7 +89,7 @@ public class Transformer {
   }
 
   public List<Commit> toCommits(Collection<GitCommit> from) {
-    Iterable<GitCommit> filteredCommits = filter(from, ignoreCommits(settings));
+    Iterable<GitCommit> filteredCommits = filter(from, this.ignoreCommits);
     return newArrayList(
         transform(
             filteredCommits,
@@ -121,6 +128,14 @@ public class Transformer {
   }
 
   public List<Tag> toTags(List<GitTag> gitTags, final List<ParsedIssue> allParsedIssues, final List<ParsedMergeRequest> allParsedMergeRequests) {
+    return newArrayList(toTagIterable(gitTags, allParsedIssues, allParsedMergeRequests));
+  }
+
+  /**
+   * Same tags as {@link #toTags(List, List, List)}, but each tag is transformed when it is iterated
+   * and is not kept.
+   */
+  public Iterable<Tag> toTagIterable(List<GitTag> gitTags, final List<ParsedIssue> allParsedIssues, final List<ParsedMergeRequest> allParsedMergeRequests) {
 
     Iterable<Tag> tags =
         transform(
@@ -211,7 +226,7 @@ public class Transformer {
               }
             });
 
-    return newArrayList(tags);
+    return tags;
   }
 
   private Iterable<ParsedIssue> filterWithCommits(List<ParsedIssue> issues) {
@@ -274,7 +289,7 @@ public class Transformer {
       boolean removeIssueFromMessage, List<SettingsIssue> issues, String string) {
     if (removeIssueFromMessage) {
       for (SettingsIssue issue : issues) {
-        string = string.replaceAll(issue.getPattern(), "");
+        string = settingsPatterns.getIssuePattern(issue).matcher(string).replaceAll("");
       }
     }
     return string;
@@ -288,14 +303,14 @@ public class Transformer {
         gitCommit.getCommitTime().getTime(), //
         toMessage(
             this.settings.removeIssueFromMessage(),
-            new IssuesUtil(this.settings).getIssues(),
+            this.settingsPatterns.getIssues(),
             gitCommit.getMessage()), //
         gitCommit.getHash(), //
         gitCommit.isMerge());
   }
 
   private String toReadableTagName(String input) {
-    Matcher matcher = compile(this.settings.getReadableTagName()).matcher(input);
+    Matcher matcher = this.settingsPatterns.getReadableTagName().matcher(input);
     if (matcher.find()) {
       if (matcher.groupCount() == 0) {
         throw new RuntimeException(
@@ -316,8 +331,8 @@ public class Transformer {
   }
 
 private String removeStrings(String removeIssuesFromString) {
-	for(String text :settings.getCommitMessagesRemoveTexts()){
-		removeIssuesFromString = removeIssuesFromString.replaceAll(text, "");
+	for(String text :settingsPatterns.getCommitMessagesRemoveTexts()){
+		removeIssuesFromString = settingsPatterns.getPattern(text).matcher(removeIssuesFromString).replaceAll("");
 	}
 	return removeIssuesFromString;
 }
@@ -7,9 +7,17 @@ import static com.google.common.collect.Lists.newArrayList;
 import static com.google.common.io.Resources.getResource;
 import static se.bjurr.gitchangelog.api.GitChangelogApiConstants.DEFAULT_DATEFORMAT;
 import static se.bjurr.gitchangelog.api.GitChangelogApiConstants.DEFAULT_FILE;
+import static se.bjurr.gitchangelog.api.GitChangelogApiConstants.DEFAULT_GITHUB_CACHE_DIRECTORY;
+import static se.bjurr.gitchangelog.api.GitChangelogApiConstants.DEFAULT_GITHUB_CACHE_SIZE;
 import static se.bjurr.gitchangelog.api.GitChangelogApiConstants.DEFAULT_GITHUB_ISSUE_PATTERN;
+import static se.bjurr.gitchangelog.api.GitChangelogApiConstants.DEFAULT_GITHUB_PAGES_IN_PARALLEL;
+import static se.bjurr.gitchangelog.api.GitChangelogApiConstants.DEFAULT_ISSUE_LOOKUPS_IN_PARALLEL;
 import static se.bjurr.gitchangelog.api.GitChangelogApiConstants.DEFAULT_GITLAB_ISSUE_PATTERN;
 import static se.bjurr.gitchangelog.api.GitChangelogApiConstants.DEFAULT_IGNORE_COMMITS_REGEXP;
+import static se.bjurr.gitchangelog.api.GitChangelogApiConstants.DEFAULT_INTEGRATION_CACHE_MAX_ENTRIES;
+import static se.bjurr.gitchangelog.api.GitChangelogApiConstants.DEFAULT_INTEGRATION_CACHE_NOT_FOUND_TTL_MINUTES;
+import static se.bjurr.gitchangelog.api.GitChangelogApiConstants.DEFAULT_INTEGRATION_CACHE_TTL_MINUTES;
+import static se.bjurr.gitchangelog.api.GitChangelogApiConstants.DEFAULT_JIRA_ISSUES_PER_REQUEST;
 import static se.bjurr.gitchangelog.api.GitChangelogApiConstants.DEFAULT_JIRA_ISSUE_PATTEN;
 import static se.bjurr.gitchangelog.api.GitChangelogApiConstants.DEFAULT_NO_ISSUE_NAME;
 import static se.bjurr.gitchangelog.api.GitChangelogApiConstants.DEFAULT_READABLE_TAG_NAME;
@@ -25,12 +33,13 @@ import java.net.URL;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import se.bjurr.gitchangelog.api.model.Changelog;
 import se.bjurr.gitchangelog.api.model.Issue;
 
-public class Settings implements Serializable {
+public class Settings implements Serializable, Cloneable {
 
 	private static final long serialVersionUID = 4565886594381385244L;
 
@@ -130,6 +139,16 @@ public class Settings implements Serializable {
 	 * <code>\\b[a-zA-Z]([a-zA-Z]+)-([0-9]+)\\b</code>
 	 */
 	private String jiraIssuePattern;
+	/**
+	 * Number of JIRA issues to get with one search request, <code>key in (...)</code>. With 1, or
+	 * less, each issue is requested by itself.
+	 */
+	private Integer jiraIssuesPerRequest;
+	/**
+	 * Folder where JIRA responses are kept between runs. They are revalidated, with <code>ETag</code>
+	 * and <code>Last-Modified</code>, instead of fetched again. Not kept if not set.
+	 */
+	private String jiraHttpCacheDirectory;
 	/** Authenticate to JIRA. */
 	private String jiraUsername;
 	/** Authenticate to JIRA. */
@@ -148,6 +167,15 @@ public class Settings implements Serializable {
 	 * <code>https://api.github.com/repos/tomasbjerre/git-changelog-lib</code>
 	 */
 	private String gitHubToken;
+	/**
+	 * Number of pages of GitHub issues to get at the same time, when all issues are needed and the
+	 * number of pages is known.
+	 */
+	private Integer gitHubPagesInParallel;
+	/** Folder of the HTTP cache of GitHub responses. <code>.okhttpcache</code> */
+	private String gitHubCacheDirectory;
+	/** Max size, in bytes, of the HTTP cache of GitHub responses. Nothing is cached with 0. */
+	private Long gitHubCacheSize;
 	/** Pattern to recognize GitHub:s. <code>#([0-9]+)</code> */
 	private String gitHubIssuePattern;
 	/**
@@ -187,9 +215,87 @@ public class Settings implements Serializable {
 	/** if true - issues are resolved from MR , else issues are resolved by commit messages */
 	private boolean mergeRequestsFirst = false;
 
+	/**
+	 * If true, an index is kept in <code>.git/changelog-index</code>. A changelog is read from the
+	 * index if nothing it depends on has changed, and commits already in the index are not parsed
+	 * again.
+	 */
+	private boolean useChangelogIndex;
+
+	/**
+	 * If true, the repository is taken from a pool of opened repositories, and given back to it when
+	 * the changelog is done. It is then not opened again for every changelog.
+	 */
+	private boolean useGitRepoPool;
+
+	/**
+	 * If true, tags are transformed one at a time while the template is rendered, instead of
+	 * transforming the whole changelog before rendering it.
+	 */
+	private boolean useStreamingRender;
+
+	/**
+	 * If true, commits are matched against issue patterns, and issues are fetched from integrations,
+	 * in parallel.
+	 */
+	private boolean useParallelIssueParsing;
+	/**
+	 * Number of issues to fetch from integrations at the same time, with {@link
+	 * #useParallelIssueParsing}.
+	 */
+	private Integer issueLookupsInParallel;
+
+	/**
+	 * Folder where issues, fetched from JIRA, GitHub and GitLab, are kept between runs. An issue that
+	 * is kept is not fetched again until its time to live has passed. Not kept if not set.
+	 */
+	private String integrationCacheDirectory;
+	/** Max number of issues, per integration, to keep. The ones kept first are removed. */
+	private Integer integrationCacheMaxEntries;
+	/** Minutes to keep a JIRA issue before fetching it again. */
+	private Integer jiraCacheTtlMinutes;
+	/** Minutes to keep a GitHub issue before fetching it again. */
+	private Integer gitHubCacheTtlMinutes;
+	/** Minutes to keep a GitLab issue before fetching it again. */
+	private Integer gitLabCacheTtlMinutes;
+	/** Minutes to remember that an issue was not found, in any integration, before asking again. */
+	private Integer integrationCacheNotFoundTtlMinutes;
+	/**
+	 * If true, nothing is fetched from integrations. Issues are only taken from the integration
+	 * cache, however old they are.
+	 */
+	private boolean offline;
+
 	public Settings() {
 	}
 
+	/**
+	 * A copy, that can be changed without changing these settings. Lists, maps and dates are copied.
+	 * What is in them, like the custom issues and the values of the extended variables, is shared
+	 * with the copy.
+	 */
+	public Settings copy() {
+		final Settings copy;
+		try {
+			copy = (Settings) super.clone();
+		} catch (final CloneNotSupportedException e) {
+			throw new RuntimeException(e);
+		}
+		if (ignoreCommitsIfOlderThan != null) {
+			copy.ignoreCommitsIfOlderThan = new Date(ignoreCommitsIfOlderThan.getTime());
+		}
+		if (customIssues != null) {
+			copy.customIssues = new ArrayList<>(customIssues);
+		}
+		if (extendedVariables != null) {
+			copy.extendedVariables = new LinkedHashMap<>(extendedVariables);
+		}
+		if (commitMessagesRemoveTexts != null) {
+			copy.commitMessagesRemoveTexts = new ArrayList<>(commitMessagesRemoveTexts);
+		}
+		return copy;
+	}
+
 	public void setCustomIssues(final List<SettingsIssue> customIssues) {
 		this.customIssues = customIssues;
 	}
@@ -293,6 +399,22 @@ public class Settings implements Serializable {
 		return fromNullable(jiraServer);
 	}
 
+	public void setJiraIssuesPerRequest(final Integer jiraIssuesPerRequest) {
+		this.jiraIssuesPerRequest = jiraIssuesPerRequest;
+	}
+
+	public void setJiraHttpCacheDirectory(final String jiraHttpCacheDirectory) {
+		this.jiraHttpCacheDirectory = jiraHttpCacheDirectory;
+	}
+
+	public Optional<String> getJiraHttpCacheDirectory() {
+		return fromNullable(emptyToNull(jiraHttpCacheDirectory));
+	}
+
+	public int getJiraIssuesPerRequest() {
+		return fromNullable(jiraIssuesPerRequest).or(DEFAULT_JIRA_ISSUES_PER_REQUEST);
+	}
+
 	public static Settings fromFile(final URL url) {
 		try {
 			return gson.fromJson(Resources.toString(url, UTF_8), Settings.class);
@@ -403,6 +525,30 @@ public class Settings implements Serializable {
 		this.gitHubToken = gitHubToken;
 	}
 
+	public void setGitHubPagesInParallel(final Integer gitHubPagesInParallel) {
+		this.gitHubPagesInParallel = gitHubPagesInParallel;
+	}
+
+	public int getGitHubPagesInParallel() {
+		return fromNullable(gitHubPagesInParallel).or(DEFAULT_GITHUB_PAGES_IN_PARALLEL);
+	}
+
+	public void setGitHubCacheDirectory(final String gitHubCacheDirectory) {
+		this.gitHubCacheDirectory = gitHubCacheDirectory;
+	}
+
+	public String getGitHubCacheDirectory() {
+		return fromNullable(gitHubCacheDirectory).or(DEFAULT_GITHUB_CACHE_DIRECTORY);
+	}
+
+	public void setGitHubCacheSize(final Long gitHubCacheSize) {
+		this.gitHubCacheSize = gitHubCacheSize;
+	}
+
+	public long getGitHubCacheSize() {
+		return fromNullable(gitHubCacheSize).or(DEFAULT_GITHUB_CACHE_SIZE);
+	}
+
 	public void setGitHubIssuePattern(final String gitHubIssuePattern) {
 		this.gitHubIssuePattern = gitHubIssuePattern;
 	}
@@ -496,4 +642,102 @@ public class Settings implements Serializable {
 	public boolean getMergeRequestsFirst() {
 		return mergeRequestsFirst;
 	}
+
+	public void setUseChangelogIndex(final boolean useChangelogIndex) {
+		this.useChangelogIndex = useChangelogIndex;
+	}
+
+	public boolean useChangelogIndex() {
+		return useChangelogIndex;
+	}
+
+	public void setUseGitRepoPool(final boolean useGitRepoPool) {
+		this.useGitRepoPool = useGitRepoPool;
+	}
+
+	public boolean useGitRepoPool() {
+		return useGitRepoPool;
+	}
+
+	public void setUseStreamingRender(final boolean useStreamingRender) {
+		this.useStreamingRender = useStreamingRender;
+	}
+
+	public boolean useStreamingRender() {
+		return useStreamingRender;
+	}
+
+	public void setUseParallelIssueParsing(final boolean useParallelIssueParsing) {
+		this.useParallelIssueParsing = useParallelIssueParsing;
+	}
+
+	public boolean useParallelIssueParsing() {
+		return useParallelIssueParsing;
+	}
+
+	public void setIssueLookupsInParallel(final Integer issueLookupsInParallel) {
+		this.issueLookupsInParallel = issueLookupsInParallel;
+	}
+
+	public int getIssueLookupsInParallel() {
+		return fromNullable(issueLookupsInParallel).or(DEFAULT_ISSUE_LOOKUPS_IN_PARALLEL);
+	}
+
+	public void setIntegrationCacheDirectory(final String integrationCacheDirectory) {
+		this.integrationCacheDirectory = integrationCacheDirectory;
+	}
+
+	public Optional<String> getIntegrationCacheDirectory() {
+		return fromNullable(emptyToNull(integrationCacheDirectory));
+	}
+
+	public void setIntegrationCacheMaxEntries(final Integer integrationCacheMaxEntries) {
+		this.integrationCacheMaxEntries = integrationCacheMaxEntries;
+	}
+
+	public int getIntegrationCacheMaxEntries() {
+		return fromNullable(integrationCacheMaxEntries).or(DEFAULT_INTEGRATION_CACHE_MAX_ENTRIES);
+	}
+
+	public void setJiraCacheTtlMinutes(final Integer jiraCacheTtlMinutes) {
+		this.jiraCacheTtlMinutes = jiraCacheTtlMinutes;
+	}
+
+	public int getJiraCacheTtlMinutes() {
+		return fromNullable(jiraCacheTtlMinutes).or(DEFAULT_INTEGRATION_CACHE_TTL_MINUTES);
+	}
+
+	public void setGitHubCacheTtlMinutes(final Integer gitHubCacheTtlMinutes) {
+		this.gitHubCacheTtlMinutes = gitHubCacheTtlMinutes;
+	}
+
+	public int getGitHubCacheTtlMinutes() {
+		return fromNullable(gitHubCacheTtlMinutes).or(DEFAULT_INTEGRATION_CACHE_TTL_MINUTES);
+	}
+
+	public void setGitLabCacheTtlMinutes(final Integer gitLabCacheTtlMinutes) {
+		this.gitLabCacheTtlMinutes = gitLabCacheTtlMinutes;
+	}
+
+	public int getGitLabCacheTtlMinutes() {
+		return fromNullable(gitLabCacheTtlMinutes).or(DEFAULT_INTEGRATION_CACHE_TTL_MINUTES);
+	}
+
+	public void setIntegrationCacheNotFoundTtlMinutes(
+			final Integer integrationCacheNotFoundTtlMinutes) {
+		this.integrationCacheNotFoundTtlMinutes = integrationCacheNotFoundTtlMinutes;
+	}
+
+	public int getIntegrationCacheNotFoundTtlMinutes() {
+		return fromNullable(integrationCacheNotFoundTtlMinutes)
+				.or(DEFAULT_INTEGRATION_CACHE_NOT_FOUND_TTL_MINUTES);
+	}
+
+	public void setOffline(final boolean offline) {
+		this.offline = offline;
+	}
+
+	public boolean isOffline() {
+		return offline;
+	}
 }
@@ -0,0 +1,70 @@
+package se.bjurr.gitchangelog.internal.settings;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static java.util.Collections.unmodifiableList;
+import static java.util.regex.Pattern.DOTALL;
+import static java.util.regex.Pattern.compile;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.regex.Pattern;
+
+/**
+ * The regular expressions of a {@link Settings}, compiled once. The expressions are taken from the
+ * settings when this is created, so it should be created when the settings are no longer changed.
+ * Each expression is compiled the first time it is used.
+ */
+public class SettingsPatterns {
+  private final String ignoreCommitsIfMessageMatches;
+  private final String readableTagName;
+  private final List<SettingsIssue> issues;
+  private final List<String> commitMessagesRemoveTexts;
+  private final ConcurrentMap<String, Pattern> patterns = new ConcurrentHashMap<>();
+  private volatile Pattern ignoreCommitsIfMessageMatchesPattern;
+
+  public SettingsPatterns(final Settings settings) {
+    this.ignoreCommitsIfMessageMatches = settings.getIgnoreCommitsIfMessageMatches();
+    this.readableTagName = settings.getReadableTagName();
+    this.issues = unmodifiableList(new IssuesUtil(settings).getIssues());
+    this.commitMessagesRemoveTexts =
+        unmodifiableList(newArrayList(settings.getCommitMessagesRemoveTexts()));
+  }
+
+  /** Compiled with {@link Pattern#DOTALL}, matching the whole message. */
+  public Pattern getIgnoreCommitsIfMessageMatches() {
+    Pattern pattern = this.ignoreCommitsIfMessageMatchesPattern;
+    if (pattern == null) {
+      pattern = compile(this.ignoreCommitsIfMessageMatches, DOTALL);
+      this.ignoreCommitsIfMessageMatchesPattern = pattern;
+    }
+    return pattern;
+  }
+
+  public Pattern getReadableTagName() {
+    return getPattern(this.readableTagName);
+  }
+
+  /** The issues of {@link IssuesUtil#getIssues()}. */
+  public List<SettingsIssue> getIssues() {
+    return this.issues;
+  }
+
+  public Pattern getIssuePattern(final SettingsIssue issue) {
+    return getPattern(issue.getPattern());
+  }
+
+  public List<String> getCommitMessagesRemoveTexts() {
+    return this.commitMessagesRemoveTexts;
+  }
+
+  /** @return The expression compiled, without flags. */
+  public Pattern getPattern(final String regexp) {
+    Pattern pattern = this.patterns.get(regexp);
+    if (pattern == null) {
+      pattern = compile(regexp);
+      this.patterns.putIfAbsent(regexp, pattern);
+    }
+    return pattern;
+  }
+}
@@ -0,0 +1,41 @@
+package se.bjurr.gitchangelog.internal.templates;
+
+import com.github.mustachejava.Mustache;
+import java.io.File;
+import java.util.Map;
+
+/** A template, with its content, compiled. */
+public class CompiledTemplate {
+  private final String content;
+  private final Mustache mustache;
+  /**
+   * The files it was compiled from, the template itself and its partials, if they were read from
+   * files.
+   */
+  private final Map<File, TemplateFile> files;
+
+  CompiledTemplate(
+      final String content, final Mustache mustache, final Map<File, TemplateFile> files) {
+    this.content = content;
+    this.mustache = mustache;
+    this.files = files;
+  }
+
+  public String getContent() {
+    return this.content;
+  }
+
+  public Mustache getMustache() {
+    return this.mustache;
+  }
+
+  /** @return True if any of the files it was compiled from has other content now. */
+  boolean isStale() {
+    for (final Map.Entry<File, TemplateFile> file : this.files.entrySet()) {
+      if (file.getValue().isChanged(file.getKey())) {
+        return true;
+      }
+    }
+    return false;
+  }
+}
@@ -0,0 +1,130 @@
+package se.bjurr.gitchangelog.internal.templates;
+
+import static com.google.common.base.Charsets.UTF_8;
+import static com.google.common.cache.CacheBuilder.newBuilder;
+import static com.google.common.hash.Hashing.sha256;
+import static com.google.common.io.Resources.getResource;
+
+import com.github.mustachejava.DefaultMustacheFactory;
+import com.github.mustachejava.Mustache;
+import com.google.common.cache.Cache;
+import com.google.common.io.Resources;
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Compiled templates, shared by all changelogs, so that rendering the same template again does not
+ * parse and compile it again. Templates given as content are found by a hash of the content.
+ * Templates given as a path are found by the path. A template is compiled again if it, or any of
+ * the partials it includes, was read from a file that now has other content.
+ */
+public class TemplateCache {
+  private static final int MAX_TEMPLATES = 100;
+
+  private static final TemplateCache INSTANCE = new TemplateCache(MAX_TEMPLATES);
+
+  private final Cache<String, CompiledTemplate> templates;
+
+  TemplateCache(final int maxTemplates) {
+    this.templates =
+        newBuilder() //
+            .maximumSize(maxTemplates) //
+            .build();
+  }
+
+  public static TemplateCache templateCache() {
+    return INSTANCE;
+  }
+
+  /**
+   * @param templatePath Name of the template, used when it includes other templates. May be null.
+   */
+  public CompiledTemplate getTemplateFromContent(
+      final String templateContent, final String templatePath) {
+    final String key =
+        "content:" + templatePath + ":" + sha256().hashString(templateContent, UTF_8);
+    CompiledTemplate compiled = this.templates.getIfPresent(key);
+    if (compiled == null || compiled.isStale()) {
+      final Map<File, TemplateFile> files = new LinkedHashMap<>();
+      compiled =
+          new CompiledTemplate(
+              templateContent, compile(templateContent, templatePath, files), files);
+      this.templates.put(key, compiled);
+    }
+    return compiled;
+  }
+
+  /** @param templatePath On the classpath, or else on the filesystem. */
+  public CompiledTemplate getTemplateFromPath(final String templatePath) {
+    final String key = "path:" + templatePath;
+    CompiledTemplate compiled = this.templates.getIfPresent(key);
+    if (compiled == null || compiled.isStale()) {
+      compiled = read(templatePath);
+      this.templates.put(key, compiled);
+    }
+    return compiled;
+  }
+
+  /** Forgets all templates. */
+  public void clear() {
+    this.templates.invalidateAll();
+  }
+
+  private CompiledTemplate read(final String templatePath) {
+    final Map<File, TemplateFile> files = new LinkedHashMap<>();
+    String content;
+    File file = null;
+    try {
+      content = Resources.toString(getResource(templatePath), UTF_8);
+    } catch (final Exception e) {
+      try {
+        file = new File(templatePath);
+        final byte[] bytes = TemplateFile.read(file, files);
+        content = new String(bytes, UTF_8);
+      } catch (final IOException e2) {
+        throw new RuntimeException(
+            "Cannot find on classpath ("
+                + templatePath
+                + ") or filesystem ("
+                + file.getAbsolutePath()
+                + ").",
+            e2);
+      }
+    }
+    return new CompiledTemplate(content, compile(content, templatePath, files), files);
+  }
+
+  private static Mustache compile(
+      final String templateContent, final String templatePath, final Map<File, TemplateFile> files) {
+    return new FileTrackingMustacheFactory(files)
+        .compile(new StringReader(templateContent), templatePath);
+  }
+
+  /** Remembers every partial that it reads from the filesystem. */
+  private static class FileTrackingMustacheFactory extends DefaultMustacheFactory {
+    private final Map<File, TemplateFile> files;
+
+    FileTrackingMustacheFactory(final Map<File, TemplateFile> files) {
+      this.files = files;
+    }
+
+    @Override
+    public Reader getReader(final String resourceName) {
+      final File file = new File(resourceName);
+      if (!file.isFile()
+          || Thread.currentThread().getContextClassLoader().getResource(resourceName) != null) {
+        return super.getReader(resourceName);
+      }
+      try {
+        final byte[] bytes = TemplateFile.read(file, this.files);
+        return new StringReader(new String(bytes, UTF_8));
+      } catch (final IOException e) {
+        return super.getReader(resourceName);
+      }
+    }
+  }
+}
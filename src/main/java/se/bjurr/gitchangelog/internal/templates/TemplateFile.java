@@ -0,0 +1,72 @@
+package se.bjurr.gitchangelog.internal.templates;
+
+import static com.google.common.hash.Hashing.sha256;
+
+import com.google.common.hash.HashCode;
+import com.google.common.io.Files;
+import java.io.File;
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * A file that a template was compiled from. Its last modified time and length are checked first,
+ * like git checks its index. The content is only hashed if they have changed, or if the file was
+ * modified so close to when it was last checked that an edit in the same tick of the filesystem
+ * clock would not change the last modified time.
+ */
+class TemplateFile {
+  /** The coarsest last modified time resolution of common filesystems, 2 seconds on FAT. */
+  private static final long FILESYSTEM_TICK_MILLIS = 2000;
+
+  private static class Stamp {
+    private final long lastModified;
+    private final long length;
+    private final long checked;
+
+    Stamp(final long lastModified, final long length, final long checked) {
+      this.lastModified = lastModified;
+      this.length = length;
+      this.checked = checked;
+    }
+  }
+
+  private final HashCode hash;
+  private volatile Stamp stamp;
+
+  private TemplateFile(final HashCode hash, final Stamp stamp) {
+    this.hash = hash;
+    this.stamp = stamp;
+  }
+
+  /** Reads the file, and remembers it in <code>files</code>. */
+  static byte[] read(final File file, final Map<File, TemplateFile> files)
+      throws IOException {
+    final long checked = System.currentTimeMillis();
+    final Stamp stamp = new Stamp(file.lastModified(), file.length(), checked);
+    final byte[] bytes = Files.toByteArray(file);
+    files.put(file, new TemplateFile(sha256().hashBytes(bytes), stamp));
+    return bytes;
+  }
+
+  /** @return True if the file has other content than when it was read. */
+  boolean isChanged(final File file) {
+    final long checked = System.currentTimeMillis();
+    final long lastModified = file.lastModified();
+    final long length = file.length();
+    final Stamp stamp = this.stamp;
+    if (lastModified == stamp.lastModified
+        && length == stamp.length
+        && stamp.checked - lastModified >= FILESYSTEM_TICK_MILLIS) {
+      return false;
+    }
+    try {
+      if (!Files.hash(file, sha256()).equals(this.hash)) {
+        return true;
+      }
+    } catch (final IOException e) {
+      return true;
+    }
+    this.stamp = new Stamp(lastModified, length, checked);
+    return false;
+  }
+}
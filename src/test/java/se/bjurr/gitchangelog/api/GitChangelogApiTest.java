@@ -6,22 +6,33 @@ import static com.google.common.collect.Maps.newHashMap;
 import static com.google.common.io.Resources.getResource;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+import static java.util.Arrays.asList;
+import static se.bjurr.gitchangelog.api.ChangelogRange.changelogRange;
 import static se.bjurr.gitchangelog.api.GitChangelogApi.gitChangelogApiBuilder;
 import static se.bjurr.gitchangelog.api.GitChangelogApiConstants.ZERO_COMMIT;
 import static se.bjurr.gitchangelog.internal.integrations.rest.RestClient.mock;
 
+import com.google.common.io.Files;
 import com.google.common.io.Resources;
 import com.google.gson.GsonBuilder;
+import java.io.File;
 import java.net.URL;
+import java.util.List;
 import org.junit.After;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import se.bjurr.gitchangelog.api.exceptions.GitChangelogRepositoryException;
 import se.bjurr.gitchangelog.internal.integrations.github.GitHubMockInterceptor;
 import se.bjurr.gitchangelog.internal.integrations.github.GitHubServiceFactory;
 import se.bjurr.gitchangelog.internal.integrations.jira.JiraClientFactory;
 import se.bjurr.gitchangelog.internal.integrations.rest.RestClientMock;
+import se.bjurr.gitchangelog.test.TestRepo;
 
 public class GitChangelogApiTest {
+  @Rule public TestRepo repo = new TestRepo();
+
   private RestClientMock mockedRestClient;
   private GitHubMockInterceptor gitHubMockInterceptor;
 
@@ -260,6 +271,125 @@ public class GitChangelogApiTest {
         .isTrue();
   }
 
+  @Test
+  public void testThatRangesAreRenderedAsSeparateChangelogs() throws Exception {
+    final File dir = this.repo.getDir();
+    this.repo.commit("first", 1000);
+    this.repo.tag("1.0", this.repo.commit("second", 2000));
+    this.repo.commit("third", 3000);
+    this.repo.tag("1.1", this.repo.commit("fourth", 4000));
+    this.repo.commit("fifth", 5000);
+    final String template =
+        "{{#tags}}{{name}}:{{#commits}} {{messageTitle}}{{/commits}}\n{{/tags}}";
+    final GitChangelogApi gitChangelogApi =
+        gitChangelogApiBuilder() //
+            .withFromRepo(dir.getAbsolutePath()) //
+            .withTemplateContent(template);
+
+    final List<String> rendered =
+        gitChangelogApi.render(
+            asList(
+                changelogRange().withToRef("1.0"),
+                changelogRange().withFromRef("1.0").withToRef("1.1"),
+                changelogRange().withFromRef("1.1")));
+
+    assertThat(rendered) //
+        .containsExactly(
+            "1.0: second\n", //
+            "1.1: fourth third\n", //
+            "Unreleased: fifth\n");
+    assertThat(rendered.get(1)) //
+        .isEqualTo(gitChangelogApi.withFromRef("1.0").withToRef("1.1").render());
+  }
+
+  @Test
+  public void testThatRangesToSameCommitGiveSameChangelogsAsEachRange() throws Exception {
+    final File dir = this.repo.getDir();
+    this.repo.commit("first", 1000);
+    this.repo.tag("1.0", this.repo.commit("second", 2000));
+    this.repo.commit("third", 3000);
+    this.repo.tag("1.1", this.repo.commit("fourth", 4000));
+    this.repo.tag("1.2", this.repo.commit("fifth", 5000));
+    this.repo.commit("sixth", 6000);
+    final String template =
+        "{{#tags}}{{name}}:{{#commits}} {{messageTitle}}{{/commits}}\n{{/tags}}";
+    final GitChangelogApi gitChangelogApi =
+        gitChangelogApiBuilder() //
+            .withFromRepo(dir.getAbsolutePath()) //
+            .withTemplateContent(template);
+
+    final List<String> rendered =
+        gitChangelogApi.render(
+            asList(
+                changelogRange(),
+                changelogRange().withFromRef("1.0"),
+                changelogRange().withFromRef("1.1"),
+                changelogRange().withFromRef("1.0").withToRef("1.2"),
+                changelogRange().withFromRef("1.1").withToRef("1.2"),
+                changelogRange().withFromRef("1.2").withToRef("1.2")));
+
+    assertThat(rendered) //
+        .containsExactly(
+            "Unreleased: sixth\n1.2: fifth\n1.1: fourth third\n1.0: second\n", //
+            "Unreleased: sixth\n1.2: fifth\n1.1: fourth third\n", //
+            "Unreleased: sixth\n1.2: fifth\n", //
+            "1.2: fifth\n1.1: fourth third\n", //
+            "1.2: fifth\n", //
+            "Unreleased: fifth\n");
+    assertThat(rendered.get(1)) //
+        .isEqualTo(gitChangelogApi.withFromRef("1.0").withToRef(null).render());
+    assertThat(rendered.get(5)) //
+        .isEqualTo(gitChangelogApi.withFromRef("1.2").withToRef("1.2").render());
+  }
+
+  @Test
+  public void testThatStreamingRenderGivesSameChangelog() throws Exception {
+    final File dir = this.repo.getDir();
+    this.repo.commit("first", 1000);
+    this.repo.tag("1.0", this.repo.commit("second #1", 2000));
+    this.repo.commit("third #2", 3000);
+    this.repo.tag("1.1", this.repo.commit("fourth #1", 4000));
+    this.repo.commit("fifth", 5000);
+    final GitChangelogApi gitChangelogApi =
+        gitChangelogApiBuilder() //
+            .withFromRepo(dir.getAbsolutePath()) //
+            .withTemplatePath("templatetest/testTagsIssuesAuthorsCommits.mustache");
+    final String expected = gitChangelogApi.render();
+    final File file = new File(dir, "CHANGELOG.md");
+
+    assertThat(gitChangelogApi.withStreamingRender(true).render()) //
+        .contains("1.1") //
+        .isEqualTo(expected);
+    gitChangelogApi.toFile(file);
+    assertThat(Files.toString(file, UTF_8)) //
+        .isEqualTo(expected);
+  }
+
+  @Test
+  public void testThatFailedStreamingRenderDoesNotChangeFile() throws Exception {
+    final File dir = this.repo.getDir();
+    this.repo.commit("first", 1000);
+    this.repo.commit("second", 2000);
+    final File file = new File(this.repo.newFolder(), "CHANGELOG.md");
+    Files.write("Previous changelog", file, UTF_8);
+    final GitChangelogApi gitChangelogApi =
+        gitChangelogApiBuilder() //
+            .withFromRepo(dir.getAbsolutePath()) //
+            .withTemplateContent("{{#tags}}{{name}}{{/tags}}") //
+            .withStreamingRender(true) //
+            .withToRef("does-not-exist");
+
+    try {
+      gitChangelogApi.toFile(file);
+      fail("Expected the changelog to fail");
+    } catch (final GitChangelogRepositoryException e) {
+      // Expected
+    }
+
+    assertThat(Files.toString(file, UTF_8)).isEqualTo("Previous changelog");
+    assertThat(file.getParentFile().list()).containsExactly(file.getName());
+  }
+
   private String toJson(final Object object) {
     return new GsonBuilder().setPrettyPrinting().create().toJson(object);
   }
@@ -0,0 +1,79 @@
+package se.bjurr.gitchangelog.api;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static se.bjurr.gitchangelog.api.GitChangelogApi.gitChangelogApiBuilder;
+import static se.bjurr.gitchangelog.api.GitChangelogRunner.gitChangelogRunner;
+
+import java.io.File;
+import java.util.List;
+import org.junit.Rule;
+import org.junit.Test;
+import se.bjurr.gitchangelog.test.TestRepo;
+
+public class GitChangelogRunnerTest {
+  private static final String TEMPLATE =
+      "{{#tags}}{{name}}:{{#commits}} {{messageTitle}}{{/commits}}\n{{/tags}}";
+
+  @Rule public TestRepo repoA = new TestRepo();
+  @Rule public TestRepo repoB = new TestRepo();
+
+  @Test
+  public void testThatChangelogsAreRenderedInOrderAndFailuresAreReported() throws Exception {
+    final File first = createRepo(this.repoA, "a");
+    final File second = createRepo(this.repoB, "b");
+    final File missing = new File(this.repoA.newFolder(), "missing");
+
+    final GitChangelogApi gitChangelogApi =
+        gitChangelogApiBuilder() //
+            .withFromRepo(first.getAbsolutePath()) //
+            .withTemplateContent(TEMPLATE);
+    final GitChangelogRunner gitChangelogRunner =
+        gitChangelogRunner() //
+            .withThreads(2) //
+            .withChangelog(gitChangelogApi);
+    gitChangelogApi.withFromRepo(missing.getAbsolutePath());
+    gitChangelogRunner //
+        .withChangelog(gitChangelogApi) //
+        .withChangelog(gitChangelogApi.withFromRepo(second.getAbsolutePath()));
+
+    final List<GitChangelogRunnerResult> results = gitChangelogRunner.render();
+
+    assertThat(results).hasSize(3);
+    assertThat(results.get(0).getRepo()).isEqualTo(first.getAbsolutePath());
+    assertThat(results.get(0).getRendered().get()).isEqualTo("Unreleased: a3 a2\n");
+    assertThat(results.get(1).getRepo()).isEqualTo(missing.getAbsolutePath());
+    assertThat(results.get(1).isSuccessful()).isFalse();
+    assertThat(results.get(1).getFailure().isPresent()).isTrue();
+    assertThat(results.get(2).getRepo()).isEqualTo(second.getAbsolutePath());
+    assertThat(results.get(2).getRendered().get()).isEqualTo("Unreleased: b3 b2\n");
+  }
+
+  @Test
+  public void testThatChangingApiAfterAddingChangelogDoesNotChangeIt() throws Exception {
+    final File repo = createRepo(this.repoA, "a");
+
+    final GitChangelogApi gitChangelogApi =
+        gitChangelogApiBuilder() //
+            .withFromRepo(repo.getAbsolutePath()) //
+            .withTemplateContent(
+                "{{#issues}}{{name}}:{{#commits}} {{messageTitle}}{{/commits}}\n{{/issues}}") //
+            .withCustomIssue("First", "a2", null, null);
+    final GitChangelogRunner gitChangelogRunner =
+        gitChangelogRunner() //
+            .withChangelog(gitChangelogApi);
+    gitChangelogApi.withCustomIssue("Second", "a3", null, null);
+
+    final List<GitChangelogRunnerResult> results = gitChangelogRunner.render();
+
+    assertThat(results).hasSize(1);
+    assertThat(results.get(0).getRendered().get()).isEqualTo("First: a2\nNo issue: a3\n");
+    assertThat(gitChangelogApi.render()).isEqualTo("First: a2\nSecond: a3\n");
+  }
+
+  private static File createRepo(final TestRepo repo, final String prefix) throws Exception {
+    for (int i = 1; i <= 3; i++) {
+      repo.commit(prefix + i, i);
+    }
+    return repo.getDir();
+  }
+}
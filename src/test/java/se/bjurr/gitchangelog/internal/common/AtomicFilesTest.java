@@ -0,0 +1,51 @@
+package se.bjurr.gitchangelog.internal.common;
+
+import static com.google.common.base.Charsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import org.junit.Before;
+import org.junit.Test;
+
+public class AtomicFilesTest {
+  private File dir;
+
+  @Before
+  public void before() throws Exception {
+    dir = Files.createTempDirectory("atomic-files").toFile();
+  }
+
+  @Test
+  public void testThatFileIsWrittenInNewFolder() throws Exception {
+    final File file = new File(new File(dir, "sub"), "file.txt");
+
+    AtomicFiles.write(file, outputStream -> outputStream.write("content".getBytes(UTF_8)));
+
+    assertThat(new String(Files.readAllBytes(file.toPath()), UTF_8)).isEqualTo("content");
+    assertThat(file.getParentFile().list()).containsExactly("file.txt");
+  }
+
+  @Test
+  public void testThatFileIsUnchangedWhenWritingFails() throws Exception {
+    final File file = new File(dir, "file.txt");
+    Files.write(file.toPath(), "previous".getBytes(UTF_8));
+
+    try {
+      AtomicFiles.write(
+          file,
+          outputStream -> {
+            outputStream.write("partial".getBytes(UTF_8));
+            throw new IOException("Failed");
+          });
+      fail("Expected the write to fail");
+    } catch (final IOException e) {
+      assertThat(e.getMessage()).isEqualTo("Failed");
+    }
+
+    assertThat(new String(Files.readAllBytes(file.toPath()), UTF_8)).isEqualTo("previous");
+    assertThat(dir.list()).containsExactly("file.txt");
+  }
+}
@@ -0,0 +1,143 @@
+package se.bjurr.gitchangelog.internal.git;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static se.bjurr.gitchangelog.api.GitChangelogApiConstants.ZERO_COMMIT;
+
+import com.google.common.base.Optional;
+import java.io.File;
+import java.util.List;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.junit.Rule;
+import org.junit.Test;
+import se.bjurr.gitchangelog.internal.git.model.GitCommit;
+import se.bjurr.gitchangelog.internal.git.model.GitTag;
+import se.bjurr.gitchangelog.test.TestRepo;
+
+public class ChangelogIndexTest {
+  private static final String UNTAGGED_NAME = "Next release";
+
+  @Rule public TestRepo repo = new TestRepo();
+
+  @Test
+  public void testThatIndexedChangelogIsTheSameAsNotIndexed() throws Exception {
+    this.repo.commit("first", 1000);
+    final RevCommit second = this.repo.commit("second", 2000);
+    this.repo.commit("third", 3000);
+    this.repo.tag("1.0", second);
+
+    final String expected = toString(getGitTags(false));
+
+    assertThat(toString(getGitTags(true))).isEqualTo(expected);
+    assertThat(new File(this.repo.getDir(), ".git/changelog-index")).isDirectory();
+    assertThat(toString(getGitTags(true))).isEqualTo(expected);
+  }
+
+  @Test
+  public void testThatIndexedChangelogIsNotUsedWhenTagIsMoved() throws Exception {
+    this.repo.commit("first", 1000);
+    final RevCommit second = this.repo.commit("second", 2000);
+    final RevCommit third = this.repo.commit("third", 3000);
+    this.repo.tag("1.0", second);
+    getGitTags(true);
+
+    this.repo.getGit().tag().setName("1.0").setObjectId(third).setForceUpdate(true).call();
+
+    assertThat(toString(getGitTags(true))) //
+        .isEqualTo(toString(getGitTags(false))) //
+        .doesNotContain(UNTAGGED_NAME);
+  }
+
+  @Test
+  public void testThatIndexedChangelogIsNotUsedWhenNewCommitsAreAdded() throws Exception {
+    this.repo.commit("first", 1000);
+    final RevCommit second = this.repo.commit("second", 2000);
+    this.repo.tag("1.0", second);
+    getGitTags(true);
+
+    this.repo.commit("third", 3000);
+
+    assertThat(toString(getGitTags(true))) //
+        .isEqualTo(toString(getGitTags(false))) //
+        .contains("third");
+  }
+
+  @Test
+  public void testThatOnlyRootIsExcludedFromZeroCommitWhenClockIsSkewed() throws Exception {
+    final RevCommit root = this.repo.createCommit("root", 1000);
+    final RevCommit feature = this.repo.createCommit("feature", 4000, root);
+    final RevCommit skewed = this.repo.createCommit("skewed", 100, root);
+    this.repo.branch("master", this.repo.createCommit("merge", 5000, feature, skewed));
+
+    for (final boolean useChangelogIndex : new boolean[] {false, true, true}) {
+      assertThat(getMessages(useChangelogIndex)) //
+          .containsOnly("merge", "feature", "skewed");
+      assertThat(getZeroCommit(useChangelogIndex)) //
+          .isEqualTo(root);
+    }
+  }
+
+  @Test
+  public void testThatEveryRootIsExcludedFromZeroCommit() throws Exception {
+    final RevCommit root = this.repo.createCommit("root", 1000);
+    final RevCommit otherRoot = this.repo.createCommit("other root", 2000);
+    final RevCommit first = this.repo.createCommit("first", 3000, root);
+    final RevCommit other = this.repo.createCommit("other", 4000, otherRoot);
+    this.repo.branch("master", this.repo.createCommit("merge", 5000, first, other));
+
+    for (final boolean useChangelogIndex : new boolean[] {false, true, true}) {
+      assertThat(getMessages(useChangelogIndex)) //
+          .containsOnly("merge", "first", "other");
+    }
+  }
+
+  private List<String> getMessages(final boolean useChangelogIndex) throws Exception {
+    final List<String> messages = newArrayList();
+    for (final GitTag gitTag : getGitTags(useChangelogIndex)) {
+      for (final GitCommit gitCommit : gitTag.getGitCommits()) {
+        messages.add(gitCommit.getMessage().trim());
+      }
+    }
+    return messages;
+  }
+
+  private ObjectId getZeroCommit(final boolean useChangelogIndex) throws Exception {
+    try (GitRepo gitRepo = new GitRepo(this.repo.getDir(), useChangelogIndex)) {
+      return gitRepo.getCommit(ZERO_COMMIT);
+    }
+  }
+
+  private List<GitTag> getGitTags(final boolean useChangelogIndex) throws Exception {
+    try (GitRepo gitRepo = new GitRepo(this.repo.getDir(), useChangelogIndex)) {
+      return gitRepo
+          .getGitRepoData(
+              gitRepo.getCommit(ZERO_COMMIT),
+              gitRepo.getRef("master"),
+              UNTAGGED_NAME,
+              Optional.<String>absent())
+          .getGitTags();
+    }
+  }
+
+  private String toString(final List<GitTag> gitTags) {
+    final StringBuilder sb = new StringBuilder();
+    for (final GitTag gitTag : gitTags) {
+      sb.append(gitTag.getName())
+          .append(" ")
+          .append(gitTag.getTagTime())
+          .append("\n");
+      for (final GitCommit gitCommit : gitTag.getGitCommits()) {
+        sb.append(gitCommit)
+            .append(" ")
+            .append(gitCommit.getAuthorName())
+            .append(" ")
+            .append(gitCommit.getAuthorEmailAddress())
+            .append(" ")
+            .append(gitCommit.getMessage())
+            .append("\n");
+      }
+    }
+    return sb.toString();
+  }
+}
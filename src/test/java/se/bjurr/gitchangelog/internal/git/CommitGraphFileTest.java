@@ -0,0 +1,154 @@
+package se.bjurr.gitchangelog.internal.git;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assume.assumeTrue;
+
+import com.google.common.base.Optional;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.RefUpdate;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import se.bjurr.gitchangelog.test.TestRepo;
+
+public class CommitGraphFileTest {
+  @Rule public TestRepo repo = new TestRepo();
+
+  private RevWalk revWalk;
+  private final List<RevCommit> commits = new ArrayList<>();
+
+  @Before
+  public void before() throws Exception {
+    this.revWalk = this.repo.getRevWalk();
+  }
+
+  @Test
+  public void testThatCommitGraphIsAbsentWhenNotWritten() throws Exception {
+    commit("root", 1000);
+
+    assertThat(CommitGraphFile.open(this.repo.getGit().getRepository().getDirectory()).isPresent())
+        .isFalse();
+  }
+
+  @Test
+  public void testThatParentsAndCommitTimesAreReadFromCommitGraph() throws Exception {
+    final RevCommit root = commit("root", 1000);
+    final RevCommit a = commit("a", 2000, root);
+    final RevCommit b = commit("b", 2000, root);
+    final RevCommit c = commit("c", 3000, root);
+    final RevCommit merge = commit("merge", 4000, a, b);
+    final RevCommit octopus = commit("octopus", 5000, merge, a, b, c);
+
+    final CommitGraphFile commitGraphFile = writeCommitGraph(octopus);
+
+    assertThat(commitGraphFile.getCommitCount()).isEqualTo(this.commits.size());
+    for (final RevCommit commit : this.commits) {
+      final int position = commitGraphFile.findPosition(commit);
+      assertThat(commitGraphFile.getObjectId(position)).isEqualTo(commit.getId());
+      assertThat(commitGraphFile.getCommitTime(position)).isEqualTo(commit.getCommitTime());
+      int generation = 1;
+      for (final RevCommit parent : commit.getParents()) {
+        generation =
+            Math.max(
+                generation,
+                commitGraphFile.getGeneration(commitGraphFile.findPosition(parent)) + 1);
+      }
+      assertThat(commitGraphFile.getGeneration(position)).isEqualTo(generation);
+      final List<ObjectId> parents = new ArrayList<>();
+      for (final int parent : commitGraphFile.getParents(position)) {
+        parents.add(commitGraphFile.getObjectId(parent));
+      }
+      assertThat(parents).containsExactly((ObjectId[]) commit.getParents());
+    }
+    assertThat(commitGraphFile.findPosition(this.repo.getEmptyTree())).isEqualTo(-1);
+  }
+
+  @Test
+  public void testThatCommitsNotInCommitGraphAreWalked() throws Exception {
+    final RevCommit root = commit("root", 1000);
+    final RevCommit first = commit("first", 2000, root);
+    final RevCommit second = commit("second", 3000, first);
+    final CommitGraphFile commitGraphFile = writeCommitGraph(second);
+    final RevCommit feature = commit("feature", 4000, first);
+    final RevCommit to = commit("to", 5000, feature, second);
+
+    final CommitGraph commitGraph = new CommitGraph(this.revWalk, Optional.of(commitGraphFile));
+    final List<String> diff = new ArrayList<>();
+    for (final RevCommit commit : new DiffWalk(commitGraph).getDiffingCommits(to, second)) {
+      diff.add(this.revWalk.parseCommit(commit).getFullMessage());
+    }
+
+    assertThat(diff).containsExactly("to", "feature");
+    assertThat(commitGraph.getRoots(to)).containsExactly(root.getId());
+  }
+
+  @Test
+  public void testThatCommitsReachableFromExcludedCommitsWithSkewedClockAreNotIncluded()
+      throws Exception {
+    final RevCommit root = commit("root", 1000);
+    final RevCommit shared = commit("shared", 3000, root);
+    RevCommit skewed = shared;
+    for (int i = 0; i < 10; i++) {
+      skewed = commit("skewed " + i, 10 + i, skewed);
+    }
+    final RevCommit excluded = commit("excluded", 5000, skewed);
+    final CommitGraphFile commitGraphFile = writeCommitGraph(excluded);
+    final RevCommit feature = commit("feature", 4000, shared);
+    final RevCommit to = commit("to", 6000, feature);
+
+    final CommitGraph commitGraph = new CommitGraph(this.revWalk, Optional.of(commitGraphFile));
+    final List<String> diff = new ArrayList<>();
+    for (final RevCommit commit : new DiffWalk(commitGraph).getDiffingCommits(to, excluded)) {
+      diff.add(this.revWalk.parseCommit(commit).getFullMessage());
+    }
+
+    assertThat(diff).containsExactly("to", "feature");
+    assertThat(commitGraph.getGeneration(commitGraph.getPosition(to))).isEqualTo(4);
+  }
+
+  @Test
+  public void testThatParsedCommitsAreForgottenWhenReset() throws Exception {
+    final RevCommit root = commit("root", 1000);
+    final RevCommit first = commit("first", 2000, root);
+    final CommitGraph commitGraph = new CommitGraph(this.revWalk);
+
+    assertThat(commitGraph.getPosition(root)).isEqualTo(0);
+    assertThat(commitGraph.getPosition(first)).isEqualTo(1);
+    commitGraph.reset();
+
+    assertThat(commitGraph.getPosition(first)).isEqualTo(0);
+    assertThat(commitGraph.getObjectId(0)).isEqualTo(first.getId());
+  }
+
+  private CommitGraphFile writeCommitGraph(final RevCommit head) throws Exception {
+    final RefUpdate refUpdate = this.repo.getGit().getRepository().updateRef("refs/heads/master");
+    refUpdate.setNewObjectId(head);
+    refUpdate.forceUpdate();
+    final File gitDir = this.repo.getGit().getRepository().getDirectory();
+    int exitCode;
+    try {
+      exitCode =
+          new ProcessBuilder(
+                  "git", "--git-dir", gitDir.getAbsolutePath(), "commit-graph", "write", "--reachable")
+              .inheritIO()
+              .start()
+              .waitFor();
+    } catch (final Exception e) {
+      exitCode = -1;
+    }
+    assumeTrue("git commit-graph write is not available", exitCode == 0);
+    return CommitGraphFile.open(gitDir).get();
+  }
+
+  private RevCommit commit(final String message, final int commitTime, final RevCommit... parents)
+      throws Exception {
+    final RevCommit revCommit = this.repo.createCommit(message, commitTime, parents);
+    this.commits.add(revCommit);
+    return revCommit;
+  }
+}
@@ -0,0 +1,61 @@
+package se.bjurr.gitchangelog.internal.git;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+import java.util.TimeZone;
+import org.eclipse.jgit.lib.CommitBuilder;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.PersonIdent;
+import org.eclipse.jgit.revwalk.DateRevQueue;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.junit.Test;
+
+import com.google.common.collect.Lists;
+
+public class CommitTimeQueueTest {
+
+  @Test
+  public void testThatCommitsAreTakenInSameOrderAsInDateRevQueue() throws Exception {
+    for (int seed = 0; seed < 20; seed++) {
+      final Random random = new Random(seed);
+      final List<RevCommit> commits = Lists.newArrayList();
+      final DateRevQueue dateRevQueue = new DateRevQueue();
+      final CommitTimeQueue commitTimeQueue = new CommitTimeQueue();
+      final List<Integer> expected = Lists.newArrayList();
+      final List<Integer> actual = Lists.newArrayList();
+      for (int i = 0; i < 3000; i++) {
+        if (random.nextInt(3) > 0 || commitTimeQueue.isEmpty()) {
+          final RevCommit commit = commit(i, 1000 + random.nextInt(20));
+          commits.add(commit);
+          dateRevQueue.add(commit);
+          commitTimeQueue.add(commits.size() - 1, commit.getCommitTime());
+        } else {
+          expected.add(commits.indexOf(dateRevQueue.next()));
+          actual.add(commitTimeQueue.next());
+        }
+      }
+      while (!commitTimeQueue.isEmpty()) {
+        expected.add(commits.indexOf(dateRevQueue.next()));
+        actual.add(commitTimeQueue.next());
+      }
+
+      assertThat(dateRevQueue.next()).isNull();
+      assertThat(actual).as("seed " + seed).isEqualTo(expected);
+    }
+  }
+
+  private RevCommit commit(final int i, final int commitTime) throws Exception {
+    final PersonIdent ident =
+        new PersonIdent(
+            "Tomas", "tomas@bjurr.se", new Date(commitTime * 1000L), TimeZone.getTimeZone("UTC"));
+    final CommitBuilder commit = new CommitBuilder();
+    commit.setTreeId(ObjectId.zeroId());
+    commit.setAuthor(ident);
+    commit.setCommitter(ident);
+    commit.setMessage("commit " + i);
+    return RevCommit.parse(commit.build());
+  }
+}
@@ -0,0 +1,92 @@
+package se.bjurr.gitchangelog.internal.git;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.junit.Rule;
+import org.junit.Test;
+import se.bjurr.gitchangelog.test.TestRepo;
+
+public class DiffWalkTest {
+  @Rule public TestRepo repo = new TestRepo();
+
+  @Test
+  public void testThatCommitsReachableFromExcludedCommitAreNotIncluded() throws Exception {
+    final RevCommit root = commit("root", 1000);
+    final RevCommit first = commit("first", 2000, root);
+    final RevCommit second = commit("second", 3000, first);
+    final RevCommit feature = commit("feature", 4000, first);
+
+    final List<String> diff = messages(diffingCommits(feature, second, root));
+
+    assertThat(diff).containsExactly("feature");
+  }
+
+  @Test
+  public void testThatCommitsWithSameCommitTimeAsExcludedCommitsAreNotIncluded()
+      throws Exception {
+    final RevCommit root = commit("root", 1000);
+    final RevCommit otherRoot = commit("other root", 1060);
+    final RevCommit shared = commit("shared", 1120, otherRoot);
+    final RevCommit merged = commit("merged", 1120, root, shared);
+    final RevCommit excluded = commit("excluded", 1120, merged);
+    final RevCommit feature = commit("feature", 1120, root);
+    final RevCommit to = commit("to", 1130, feature, shared);
+
+    final List<String> diff = messages(diffingCommits(to, excluded, root));
+
+    assertThat(diff).containsExactly("to", "feature");
+  }
+
+  @Test
+  public void testThatCommitsReachableFromExcludedCommitsWithSkewedClockAreNotIncluded()
+      throws Exception {
+    final RevCommit root = commit("root", 1000);
+    final RevCommit shared = commit("shared", 3000, root);
+    final RevCommit feature = commit("feature", 4000, shared);
+    final RevCommit to = commit("to", 6000, feature);
+    RevCommit skewed = shared;
+    for (int i = 0; i < 10; i++) {
+      skewed = commit("skewed " + i, 10 + i, skewed);
+    }
+    final RevCommit excluded = commit("excluded", 5000, skewed);
+
+    final List<String> diff = messages(diffingCommits(to, excluded));
+
+    assertThat(diff).containsExactly("to", "feature");
+  }
+
+  @Test
+  public void testThatNothingIsIncludedWhenToIsExcluded() throws Exception {
+    final RevCommit root = commit("root", 1000);
+    final RevCommit to = commit("first", 2000, root);
+
+    assertThat(diffingCommits(to, to, root)).isEmpty();
+  }
+
+  private List<RevCommit> diffingCommits(final RevCommit to, final RevCommit... excludes)
+      throws Exception {
+    final RevWalk revWalk = this.repo.getRevWalk();
+    final RevCommit[] excludesInWalk = new RevCommit[excludes.length];
+    for (int i = 0; i < excludes.length; i++) {
+      excludesInWalk[i] = revWalk.lookupCommit(excludes[i]);
+    }
+    return new DiffWalk(revWalk).getDiffingCommits(revWalk.lookupCommit(to), excludesInWalk);
+  }
+
+  private RevCommit commit(final String message, final long seconds, final RevCommit... parents)
+      throws Exception {
+    return this.repo.createCommit(message, seconds, parents);
+  }
+
+  private List<String> messages(final List<RevCommit> commits) {
+    final List<String> messages = new ArrayList<>();
+    for (final RevCommit commit : commits) {
+      messages.add(commit.getFullMessage());
+    }
+    return messages;
+  }
+}
@@ -0,0 +1,104 @@
+package se.bjurr.gitchangelog.internal.git;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static se.bjurr.gitchangelog.api.GitChangelogApiConstants.ZERO_COMMIT;
+
+import com.google.common.base.Optional;
+import java.util.ArrayList;
+import java.util.List;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import se.bjurr.gitchangelog.internal.git.model.GitTag;
+import se.bjurr.gitchangelog.test.TestRepo;
+
+public class GitRepoPoolTest {
+  private static final String UNTAGGED_NAME = "Next release";
+
+  @Rule public TestRepo repo = new TestRepo();
+
+  private GitRepoPool gitRepoPool;
+
+  @Before
+  public void before() throws Exception {
+    this.gitRepoPool = new GitRepoPool(2, 10);
+  }
+
+  @After
+  public void after() {
+    this.gitRepoPool.clear();
+  }
+
+  @Test
+  public void testThatClosedRepoIsReused() throws Exception {
+    this.repo.commit("first", 1000);
+    this.repo.commit("second", 2000);
+
+    final GitRepo first = this.gitRepoPool.acquire(this.repo.getDir(), false);
+    first.close();
+    final GitRepo second = this.gitRepoPool.acquire(this.repo.getDir(), false);
+    second.close();
+
+    assertThat(second).isSameAs(first);
+  }
+
+  @Test
+  public void testThatRepoInUseIsNotReused() throws Exception {
+    this.repo.commit("first", 1000);
+    this.repo.commit("second", 2000);
+
+    final GitRepo first = this.gitRepoPool.acquire(this.repo.getDir(), false);
+    final GitRepo second = this.gitRepoPool.acquire(this.repo.getDir(), false);
+    first.close();
+    second.close();
+
+    assertThat(second).isNotSameAs(first);
+    final GitRepo third = this.gitRepoPool.acquire(this.repo.getDir(), false);
+    assertThat(third).isSameAs(first);
+    third.close();
+  }
+
+  @Test
+  public void testThatClearedRepoIsNotReused() throws Exception {
+    this.repo.commit("first", 1000);
+
+    final GitRepo first = this.gitRepoPool.acquire(this.repo.getDir(), false);
+    first.close();
+    this.gitRepoPool.clear();
+    final GitRepo second = this.gitRepoPool.acquire(this.repo.getDir(), false);
+    second.close();
+
+    assertThat(second).isNotSameAs(first);
+  }
+
+  @Test
+  public void testThatReusedRepoSeesNewCommitsAndTags() throws Exception {
+    this.repo.commit("first", 1000);
+    final RevCommit second = this.repo.commit("second", 2000);
+    assertThat(getTagNames()).containsExactly(UNTAGGED_NAME);
+
+    this.repo.tag("1.0", second);
+    this.repo.commit("third", 3000);
+
+    assertThat(getTagNames()).containsExactly(UNTAGGED_NAME, "refs/tags/1.0");
+  }
+
+  private List<String> getTagNames() throws Exception {
+    try (GitRepo gitRepo = this.gitRepoPool.acquire(this.repo.getDir(), false)) {
+      final List<String> tagNames = new ArrayList<>();
+      for (final GitTag gitTag :
+          gitRepo
+              .getGitRepoData(
+                  gitRepo.getCommit(ZERO_COMMIT),
+                  gitRepo.getRef("master"),
+                  UNTAGGED_NAME,
+                  Optional.<String>absent())
+              .getGitTags()) {
+        tagNames.add(gitTag.getName());
+      }
+      return tagNames;
+    }
+  }
+}
@@ -13,10 +13,13 @@ import java.io.File;
 import java.util.List;
 import java.util.Map;
 import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.revwalk.RevCommit;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
 import se.bjurr.gitchangelog.internal.git.model.GitCommit;
 import se.bjurr.gitchangelog.internal.git.model.GitTag;
+import se.bjurr.gitchangelog.test.TestRepo;
 
 public class GitRepoTest {
   private static final String FIRST_COMMIT_HASH = "a1aa5ff";
@@ -24,6 +27,8 @@ public class GitRepoTest {
   private static final String TAG_1_0_HASH = "01484ce71bbc76e1af75ebb07a52844145ce99dc";
   private File gitRepoFile;
 
+  @Rule public TestRepo repo = new TestRepo();
+
   @Before
   public void before() {
     this.gitRepoFile = new File(Resources.getResource("github-issues.json").getFile());
@@ -270,6 +275,55 @@ public class GitRepoTest {
     assertThat(firstCommit.name()).as(gitRepo.toString()).startsWith(FIRST_COMMIT_HASH);
   }
 
+  @Test
+  public void testThatCommitReachedByTagsAtSameDistanceGoesToLowestTagName() throws Exception {
+    final RevCommit root = this.repo.createCommit("root", 1000);
+    final RevCommit shared = this.repo.createCommit("shared", 2000, root);
+    final RevCommit v9a = this.repo.createCommit("v9a", 3000, shared);
+    final RevCommit v6b = this.repo.createCommit("v6b", 4000, shared);
+    this.repo.tag("v9a", v9a);
+    this.repo.tag("v6b", v6b);
+    this.repo.branch("master", this.repo.createCommit("merge", 5000, v9a, v6b));
+
+    final Map<String, GitTag> perTag = perTag(getTestRepoTags());
+
+    assertThat(messages(perTag.get("refs/tags/v6b").getGitCommits())) //
+        .containsExactly("v6b", "shared");
+    assertThat(messages(perTag.get("refs/tags/v9a").getGitCommits())) //
+        .containsExactly("v9a");
+  }
+
+  @Test
+  public void testThatCommitReachedByTagsAtOtherDistancesGoesToClosestTag() throws Exception {
+    final RevCommit root = this.repo.createCommit("root", 1000);
+    final RevCommit shared = this.repo.createCommit("shared", 2000, root);
+    final RevCommit v9a = this.repo.createCommit("v9a", 3000, shared);
+    final RevCommit between = this.repo.createCommit("between", 3500, shared);
+    final RevCommit v6b = this.repo.createCommit("v6b", 4000, between);
+    this.repo.tag("v9a", v9a);
+    this.repo.tag("v6b", v6b);
+    this.repo.branch("master", this.repo.createCommit("merge", 5000, v9a, v6b));
+
+    final Map<String, GitTag> perTag = perTag(getTestRepoTags());
+
+    assertThat(messages(perTag.get("refs/tags/v6b").getGitCommits())) //
+        .containsExactly("v6b", "between");
+    assertThat(messages(perTag.get("refs/tags/v9a").getGitCommits())) //
+        .containsExactly("v9a", "shared");
+  }
+
+  private List<GitTag> getTestRepoTags() throws Exception {
+    try (GitRepo gitRepo = new GitRepo(this.repo.getDir())) {
+      return gitRepo
+          .getGitRepoData(
+              gitRepo.getCommit(ZERO_COMMIT),
+              gitRepo.getRef(REF_MASTER),
+              "No tag",
+              Optional.<String>absent())
+          .getGitTags();
+    }
+  }
+
   private GitRepo getGitRepo() throws Exception {
     return new GitRepo(this.gitRepoFile);
   }
@@ -0,0 +1,88 @@
+package se.bjurr.gitchangelog.internal.git;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.lang.reflect.Field;
+import java.nio.charset.Charset;
+import java.util.Date;
+import java.util.TimeZone;
+import org.eclipse.jgit.lib.CommitBuilder;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.PersonIdent;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.junit.Test;
+import se.bjurr.gitchangelog.internal.git.model.GitCommit;
+
+public class LazyGitCommitTest {
+
+  @Test
+  public void testThatLazyCommitEqualsDecodedCommit() throws Exception {
+    final RevCommit revCommit =
+        commit("UTF-8", "\u00c5sa \u00d6berg", "Fixing \u00f6 and \u00e4\n\nIn body");
+
+    final GitCommit lazy = new LazyGitCommit(revCommit);
+    final GitCommit decoded =
+        new GitCommit(
+            revCommit.getAuthorIdent().getName(),
+            revCommit.getAuthorIdent().getEmailAddress(),
+            new Date(revCommit.getCommitTime() * 1000L),
+            revCommit.getFullMessage(),
+            revCommit.getName(),
+            false);
+
+    assertThat(lazy.getAuthorName()).isEqualTo("\u00c5sa \u00d6berg");
+    assertThat(lazy.getMessage()).isEqualTo("Fixing \u00f6 and \u00e4\n\nIn body");
+    assertThat(lazy).isEqualTo(decoded);
+    assertThat(decoded).isEqualTo(lazy);
+    assertThat(lazy.hashCode()).isEqualTo(decoded.hashCode());
+  }
+
+  @Test
+  public void testThatMessageIsDecodedWithCommitEncoding() throws Exception {
+    final RevCommit revCommit =
+        commit("ISO-8859-1", "\u00c5sa \u00d6berg", "Fixing \u00f6 and \u00e4");
+
+    final GitCommit lazy = new LazyGitCommit(revCommit);
+
+    assertThat(lazy.getMessage()).isEqualTo("Fixing \u00f6 and \u00e4");
+    assertThat(lazy.getAuthorName()).isEqualTo(revCommit.getAuthorIdent().getName());
+  }
+
+  @Test
+  public void testThatEqualsHashCodeAndToStringDoNotDecode() throws Exception {
+    final RevCommit revCommit = commit("UTF-8", "\u00c5sa \u00d6berg", "Fixing \u00f6");
+    final GitCommit lazy = new LazyGitCommit(revCommit);
+    final GitCommit other = new LazyGitCommit(revCommit);
+
+    assertThat(lazy.equals(other)).isTrue();
+    assertThat(lazy.hashCode()).isEqualTo(other.hashCode());
+    assertThat(lazy.toString()).contains(revCommit.getName());
+
+    assertThat(isDecoded(lazy)).isFalse();
+    assertThat(isDecoded(other)).isFalse();
+  }
+
+  private boolean isDecoded(final GitCommit gitCommit) throws Exception {
+    for (final String name : new String[] {"authorIdent", "message"}) {
+      final Field field = LazyGitCommit.class.getDeclaredField(name);
+      field.setAccessible(true);
+      if (field.get(gitCommit) != null) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private RevCommit commit(final String encoding, final String author, final String message)
+      throws Exception {
+    final PersonIdent ident =
+        new PersonIdent(author, "asa@bjurr.se", new Date(1000000L), TimeZone.getTimeZone("UTC"));
+    final CommitBuilder commit = new CommitBuilder();
+    commit.setTreeId(ObjectId.zeroId());
+    commit.setAuthor(ident);
+    commit.setCommitter(ident);
+    commit.setEncoding(Charset.forName(encoding));
+    commit.setMessage(message);
+    return RevCommit.parse(commit.build());
+  }
+}
@@ -0,0 +1,59 @@
+package se.bjurr.gitchangelog.internal.git;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.lib.Ref;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import se.bjurr.gitchangelog.test.TestRepo;
+
+public class RefSnapshotTest {
+  @Rule public TestRepo repo = new TestRepo();
+
+  private Git git;
+  private RevCommit commit;
+
+  @Before
+  public void before() throws Exception {
+    this.git = this.repo.getGit();
+    this.commit = this.repo.commit("first", 1000);
+  }
+
+  @Test
+  public void testThatFirstRefByNameEndingWithSuffixIsFound() throws Exception {
+    this.git.branchCreate().setName("feature").call();
+    this.git.branchCreate().setName("other-feature").call();
+    this.git.tag().setName("feature").setAnnotated(false).call();
+    final RefSnapshot refSnapshot = new RefSnapshot(this.git.getRepository());
+
+    assertThat(refSnapshot.findRef("feature").get().getName()).isEqualTo("refs/heads/feature");
+    assertThat(refSnapshot.findRef("tags/feature").get().getName())
+        .isEqualTo("refs/tags/feature");
+    assertThat(refSnapshot.findRef("-feature").get().getName())
+        .isEqualTo("refs/heads/other-feature");
+    assertThat(refSnapshot.findRef("HEAD").get().getName()).isEqualTo("HEAD");
+    assertThat(refSnapshot.findRef("missing").isPresent()).isFalse();
+  }
+
+  @Test
+  public void testThatAnnotatedTagsArePeeled() throws Exception {
+    final Ref annotated = this.git.tag().setName("1.0").setMessage("release").call();
+    this.git.tag().setName("1.1").setAnnotated(false).call();
+    final RefSnapshot refSnapshot = new RefSnapshot(this.git.getRepository());
+
+    final List<String> tagNames = new ArrayList<>();
+    for (final Ref tag : refSnapshot.getTags()) {
+      tagNames.add(tag.getName());
+      assertThat(refSnapshot.getPeeledObjectId(tag)).isEqualTo(this.commit.getId());
+    }
+    assertThat(tagNames).containsExactly("refs/tags/1.0", "refs/tags/1.1");
+    assertThat(refSnapshot.findRef("1.0").get().getObjectId())
+        .isEqualTo(annotated.getObjectId())
+        .isNotEqualTo(this.commit.getId());
+  }
+}
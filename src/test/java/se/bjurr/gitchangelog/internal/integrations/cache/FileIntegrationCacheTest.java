@@ -0,0 +1,91 @@
+package se.bjurr.gitchangelog.internal.integrations.cache;
+
+import static com.google.common.base.Charsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.nio.file.Files;
+import org.junit.Before;
+import org.junit.Test;
+
+public class FileIntegrationCacheTest {
+  private File cacheDir;
+
+  @Before
+  public void before() throws Exception {
+    cacheDir = Files.createTempDirectory("integration-cache").toFile();
+  }
+
+  @Test
+  public void testThatEntriesAreKeptBetweenInstances() throws Exception {
+    final FileIntegrationCache cache = new FileIntegrationCache(cacheDir, 10);
+    cache.put("JIRA", "JIR-1", "jira 1");
+    cache.put("GITHUB", "1", "github 1");
+    cache.flush();
+
+    final FileIntegrationCache reopened = new FileIntegrationCache(cacheDir, 10);
+    assertThat(reopened.get("JIRA", "JIR-1").get().getValue()) //
+        .isEqualTo("jira 1");
+    assertThat(reopened.get("GITHUB", "1").get().getValue()) //
+        .isEqualTo("github 1");
+    assertThat(reopened.get("GITHUB", "JIR-1").isPresent()) //
+        .isFalse();
+  }
+
+  @Test
+  public void testThatFirstPutEntriesAreRemovedWhenFull() throws Exception {
+    final FileIntegrationCache cache = new FileIntegrationCache(cacheDir, 2);
+    cache.put("JIRA", "JIR-1", "1");
+    cache.put("JIRA", "JIR-2", "2");
+    cache.put("JIRA", "JIR-1", "1 again");
+    cache.put("JIRA", "JIR-3", "3");
+    cache.flush();
+
+    final FileIntegrationCache reopened = new FileIntegrationCache(cacheDir, 2);
+    assertThat(reopened.get("JIRA", "JIR-1").get().getValue()) //
+        .isEqualTo("1 again");
+    assertThat(reopened.get("JIRA", "JIR-2").isPresent()) //
+        .isFalse();
+    assertThat(reopened.get("JIRA", "JIR-3").get().getValue()) //
+        .isEqualTo("3");
+  }
+
+  @Test
+  public void testThatInstancesUsingSameFolderDoNotOverwriteEachOther() throws Exception {
+    final FileIntegrationCache first = new FileIntegrationCache(cacheDir, 10);
+    final FileIntegrationCache second = new FileIntegrationCache(cacheDir, 10);
+    assertThat(first.get("JIRA", "JIR-1").isPresent()).isFalse();
+    assertThat(second.get("JIRA", "JIR-1").isPresent()).isFalse();
+
+    first.put("JIRA", "JIR-1", "1");
+    first.put("JIRA", "JIR-3", "3");
+    second.put("JIRA", "JIR-2", "2");
+    second.put("JIRA", "JIR-3", "3 again");
+    first.flush();
+    second.flush();
+
+    final FileIntegrationCache reopened = new FileIntegrationCache(cacheDir, 10);
+    assertThat(reopened.get("JIRA", "JIR-1").get().getValue()) //
+        .isEqualTo("1");
+    assertThat(reopened.get("JIRA", "JIR-2").get().getValue()) //
+        .isEqualTo("2");
+    assertThat(reopened.get("JIRA", "JIR-3").get().getValue()) //
+        .isEqualTo("3 again");
+    assertThat(second.get("JIRA", "JIR-1").get().getValue()) //
+        .isEqualTo("1");
+  }
+
+  @Test
+  public void testThatUnreadableFileIsRebuilt() throws Exception {
+    Files.write(new File(cacheDir, "JIRA.json").toPath(), "not json".getBytes(UTF_8));
+    final FileIntegrationCache cache = new FileIntegrationCache(cacheDir, 10);
+
+    assertThat(cache.get("JIRA", "JIR-1").isPresent()) //
+        .isFalse();
+    cache.put("JIRA", "JIR-1", "1");
+    cache.flush();
+
+    assertThat(new FileIntegrationCache(cacheDir, 10).get("JIRA", "JIR-1").get().getValue()) //
+        .isEqualTo("1");
+  }
+}
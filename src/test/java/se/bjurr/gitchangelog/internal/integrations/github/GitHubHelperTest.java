@@ -0,0 +1,215 @@
+package se.bjurr.gitchangelog.internal.integrations.github;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static java.util.Collections.synchronizedList;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+import okhttp3.Headers;
+import okhttp3.MediaType;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.ResponseBody;
+import org.junit.Test;
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+
+public class GitHubHelperTest {
+
+  @Test
+  public void testThatAllIssuesAreFetchedWhenThatIsFewerRequests() throws Exception {
+    final GitHubServiceMock service = new GitHubServiceMock(3);
+    final GitHubHelper gitHubHelper = new GitHubHelper(service);
+
+    gitHubHelper.prepareLookups(10);
+
+    assertThat(gitHubHelper.getIssue("#1").get().getTitle()) //
+        .isEqualTo("Issue 1");
+    assertThat(gitHubHelper.getIssue("250").get().getTitle()) //
+        .isEqualTo("Issue 250");
+    assertThat(gitHubHelper.getIssue("#301").isPresent()) //
+        .isFalse();
+    assertThat(service.requests) //
+        .containsOnly("page 1", "page 2", "page 3") //
+        .hasSize(3);
+  }
+
+  @Test
+  public void testThatAllPagesAreFetchedWhenFetchedInParallel() throws Exception {
+    final GitHubServiceMock service = new GitHubServiceMock(20);
+    final GitHubHelper gitHubHelper = new GitHubHelper(service, 8);
+
+    gitHubHelper.prepareLookups(100);
+
+    for (int number = 1; number <= 2000; number++) {
+      assertThat(gitHubHelper.getIssue("#" + number).get().getNumber()) //
+          .isEqualTo(Integer.toString(number));
+    }
+    assertThat(gitHubHelper.getIssue("#2001").isPresent()) //
+        .isFalse();
+    assertThat(service.requests) //
+        .hasSize(20) //
+        .doesNotHaveDuplicates();
+  }
+
+  @Test
+  public void testThatRequestIsRetriedWhenRateLimitExceeded() throws Exception {
+    final GitHubServiceMock service = new GitHubServiceMock(50);
+    service.rateLimitedResponses = 2;
+    final GitHubHelper gitHubHelper = new GitHubHelper(service);
+
+    gitHubHelper.prepareLookups(1);
+
+    assertThat(gitHubHelper.getIssue("#2500").get().getTitle()) //
+        .isEqualTo("Issue 2500");
+    assertThat(service.requests) //
+        .containsExactly("page 1", "issue 2500", "issue 2500", "issue 2500");
+  }
+
+  @Test
+  public void testThatIssuesAreFetchedByNumberWhenThatIsFewerRequests() throws Exception {
+    final GitHubServiceMock service = new GitHubServiceMock(50);
+    final GitHubHelper gitHubHelper = new GitHubHelper(service);
+
+    gitHubHelper.prepareLookups(2);
+
+    assertThat(gitHubHelper.getIssue("#1").get().getTitle()) //
+        .isEqualTo("Issue 1");
+    assertThat(gitHubHelper.getIssue("#2500").get().getTitle()) //
+        .isEqualTo("Issue 2500");
+    assertThat(gitHubHelper.getIssue("#2500").get().getTitle()) //
+        .isEqualTo("Issue 2500");
+    assertThat(gitHubHelper.getIssue("#5001").isPresent()) //
+        .isFalse();
+    assertThat(service.requests) //
+        .containsExactly("page 1", "issue 2500", "issue 5001");
+  }
+
+  @Test
+  public void testThatOnePageIsAllIssues() throws Exception {
+    final GitHubServiceMock service = new GitHubServiceMock(1);
+    final GitHubHelper gitHubHelper = new GitHubHelper(service);
+
+    assertThat(gitHubHelper.getIssue("#100").get().getTitle()) //
+        .isEqualTo("Issue 100");
+    assertThat(gitHubHelper.getIssue("#101").isPresent()) //
+        .isFalse();
+    assertThat(service.requests) //
+        .containsExactly("page 1");
+  }
+
+  /** Pages of 100 issues, numbered from 1. */
+  private static class GitHubServiceMock implements GitHubService {
+    private final int pages;
+    private final List<String> requests = synchronizedList(new ArrayList<String>());
+    /** Number of requests, by number, that are rejected by the rate limit. */
+    private int rateLimitedResponses;
+
+    public GitHubServiceMock(final int pages) {
+      this.pages = pages;
+    }
+
+    @Override
+    public Call<List<GitHubIssue>> issues(final int page) {
+      return new CallMock<>(() -> getIssues(page));
+    }
+
+    @Override
+    public Call<GitHubIssue> issue(final String number) {
+      return new CallMock<>(() -> getIssue(number));
+    }
+
+    private Response<List<GitHubIssue>> getIssues(final int page) {
+      requests.add("page " + page);
+      final List<GitHubIssue> issues = newArrayList();
+      for (int number = (page - 1) * 100 + 1; number <= page * 100; number++) {
+        issues.add(createIssue(number));
+      }
+      final Headers.Builder headers = new Headers.Builder();
+      if (page < pages) {
+        headers.add(
+            "Link",
+            "<https://api.github.com/issues?state=all&per_page=100&page="
+                + (page + 1)
+                + ">; rel=\"next\", <https://api.github.com/issues?state=all&per_page=100&page="
+                + pages
+                + ">; rel=\"last\"");
+      }
+      return Response.success(issues, headers.build());
+    }
+
+    private Response<GitHubIssue> getIssue(final String number) {
+      requests.add("issue " + number);
+      if (rateLimitedResponses-- > 0) {
+        return Response.<GitHubIssue>error(
+            ResponseBody.create(MediaType.parse("application/json"), "{}"),
+            new okhttp3.Response.Builder() //
+                .code(403) //
+                .protocol(Protocol.HTTP_1_1) //
+                .request(new Request.Builder().url("https://api.github.com/").build()) //
+                .header("Retry-After", "0") //
+                .header("X-RateLimit-Remaining", "0") //
+                .build());
+      }
+      if (Integer.parseInt(number) > pages * 100) {
+        return Response.<GitHubIssue>error(
+            404, ResponseBody.create(MediaType.parse("application/json"), "{}"));
+      }
+      return Response.success(createIssue(Integer.parseInt(number)));
+    }
+
+    private GitHubIssue createIssue(final int number) {
+      return new GitHubIssue(
+          "Issue " + number,
+          "https://github.com/issues/" + number,
+          Integer.toString(number),
+          newArrayList(new GitHubLabel("label")));
+    }
+  }
+
+  /** Responds when executed, every time it is executed. */
+  private static class CallMock<T> implements Call<T> {
+    private final Supplier<Response<T>> response;
+
+    public CallMock(final Supplier<Response<T>> response) {
+      this.response = response;
+    }
+
+    @Override
+    public Response<T> execute() throws IOException {
+      return response.get();
+    }
+
+    @Override
+    public void enqueue(final Callback<T> callback) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean isExecuted() {
+      return false;
+    }
+
+    @Override
+    public void cancel() {}
+
+    @Override
+    public boolean isCanceled() {
+      return false;
+    }
+
+    @Override
+    public Call<T> clone() {
+      return this;
+    }
+
+    @Override
+    public Request request() {
+      return null;
+    }
+  }
+}
@@ -0,0 +1,112 @@
+package se.bjurr.gitchangelog.internal.integrations.jira;
+
+import static com.google.common.base.Charsets.UTF_8;
+import static com.google.common.io.Resources.getResource;
+import static org.assertj.core.api.Assertions.assertThat;
+import static se.bjurr.gitchangelog.internal.integrations.rest.RestClient.mock;
+
+import com.google.common.collect.Lists;
+import com.google.common.io.Resources;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import se.bjurr.gitchangelog.internal.integrations.rest.RestClientMock;
+
+public class DefaultJiraClientTest {
+  private RestClientMock mockedRestClient;
+
+  @Before
+  public void before() throws Exception {
+    mockedRestClient = new RestClientMock();
+    mockedRestClient //
+        .addMockedResponse(
+            "/jira/rest/api/2/search?jql=key+in+%28JIR-1234%2CJIR-5262%29&fields=parent,summary,issuetype,labels,description,issuelinks&maxResults=2&validateQuery=false",
+            "{\"issues\":["
+                + Resources.toString(getResource("jira-issue-jir-1234.json"), UTF_8)
+                + ","
+                + Resources.toString(getResource("jira-issue-jir-5262.json"), UTF_8)
+                + "]}");
+    mock(mockedRestClient);
+  }
+
+  @After
+  public void after() {
+    mock(null);
+  }
+
+  @Test
+  public void testThatPrefetchedIssuesAreFoundWithoutMoreRequests() throws Exception {
+    final DefaultJiraClient client = new DefaultJiraClient("https://server/jira");
+
+    client.prefetchIssues(Lists.newArrayList("JIR-1234", "JIR-5262"), 50);
+
+    assertThat(client.getIssue("JIR-1234").get().getTitle()) //
+        .isEqualTo("Title of jira 1234");
+    assertThat(client.getIssue("JIR-1234").get().getLabels()) //
+        .containsExactly("label1", "label2");
+    assertThat(client.getIssue("JIR-5262").get().getTitle()) //
+        .isEqualTo("The Title of jira 5262");
+    assertThat(client.getIssue("JIR-5262").get().getLink()) //
+        .isEqualTo("https://server/jira/browse/JIR-5262");
+  }
+
+  @Test
+  public void testThatIssuesAreFetchedOneByOneIfSearchFails() throws Exception {
+    mockedRestClient.addMockedResponse(
+        "/jira/rest/api/2/issue/JIR-1?fields=parent,summary,issuetype,labels,description,issuelinks",
+        Resources.toString(getResource("jira-issue-jir-1234.json"), UTF_8));
+    mockedRestClient.addMockedResponse(
+        "/jira/rest/api/2/issue/JIR-2?fields=parent,summary,issuetype,labels,description,issuelinks",
+        Resources.toString(getResource("jira-issue-jir-5262.json"), UTF_8));
+    final DefaultJiraClient client = new DefaultJiraClient("https://server/jira");
+
+    client.prefetchIssues(Lists.newArrayList("JIR-1", "JIR-2"), 50);
+
+    assertThat(client.getIssue("JIR-1").get().getTitle()) //
+        .isEqualTo("Title of jira 1234");
+    assertThat(client.getIssue("JIR-2").get().getTitle()) //
+        .isEqualTo("The Title of jira 5262");
+    assertThat(client.getIssue("JIR-3").isPresent()) //
+        .isFalse();
+  }
+
+  @Test
+  public void testThatIssuesNotFoundInSearchAreFetchedOneByOne() throws Exception {
+    mockedRestClient.addMockedResponse(
+        "/jira/rest/api/2/search?jql=key+in+%28JIR-1234%2CJIR-2%29&fields=parent,summary,issuetype,labels,description,issuelinks&maxResults=2&validateQuery=false",
+        "{\"total\":1,\"issues\":["
+            + Resources.toString(getResource("jira-issue-jir-1234.json"), UTF_8)
+            + "]}");
+    mockedRestClient.addMockedResponse(
+        "/jira/rest/api/2/issue/JIR-2?fields=parent,summary,issuetype,labels,description,issuelinks",
+        Resources.toString(getResource("jira-issue-jir-5262.json"), UTF_8));
+    final DefaultJiraClient client = new DefaultJiraClient("https://server/jira");
+
+    client.prefetchIssues(Lists.newArrayList("JIR-1234", "JIR-2"), 50);
+
+    assertThat(client.getIssue("JIR-1234").get().getTitle()) //
+        .isEqualTo("Title of jira 1234");
+    assertThat(client.getIssue("JIR-2").get().getTitle()) //
+        .isEqualTo("The Title of jira 5262");
+  }
+
+  @Test
+  public void testThatIssuesLeftOutOfLimitedSearchAreFetchedOneByOne() throws Exception {
+    mockedRestClient.addMockedResponse(
+        "/jira/rest/api/2/search?jql=key+in+%28JIR-1234%2CJIR-5262%29&fields=parent,summary,issuetype,labels,description,issuelinks&maxResults=2&validateQuery=false",
+        "{\"startAt\":0,\"maxResults\":1,\"total\":2,\"issues\":["
+            + Resources.toString(getResource("jira-issue-jir-1234.json"), UTF_8)
+            + "]}");
+    mockedRestClient.addMockedResponse(
+        "/jira/rest/api/2/issue/JIR-5262?fields=parent,summary,issuetype,labels,description,issuelinks",
+        Resources.toString(getResource("jira-issue-jir-5262.json"), UTF_8));
+    final DefaultJiraClient client = new DefaultJiraClient("https://server/jira");
+
+    client.prefetchIssues(Lists.newArrayList("JIR-1234", "JIR-5262"), 50);
+
+    assertThat(client.getIssue("JIR-1234").get().getTitle()) //
+        .isEqualTo("Title of jira 1234");
+    assertThat(client.getIssue("JIR-5262").get().getTitle()) //
+        .isEqualTo("The Title of jira 5262");
+  }
+}
@@ -38,6 +38,11 @@ public class RestClientMock extends RestClient {
     }
   }
 
+  @Override
+  public int getResponseCode(HttpURLConnection conn) throws Exception {
+    return HttpURLConnection.HTTP_OK;
+  }
+
   @Override
   public HttpURLConnection openConnection(URL addr) throws Exception {
     return new HttpURLConnection(addr) {
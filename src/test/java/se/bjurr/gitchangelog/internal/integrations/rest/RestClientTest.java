@@ -0,0 +1,195 @@
+package se.bjurr.gitchangelog.internal.integrations.rest;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static java.util.Collections.synchronizedList;
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.google.common.base.Optional;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class RestClientTest {
+  private static final String URL = "http://server/rest/api/2/issue/JIR-1";
+
+  private File cacheDir;
+  private String body;
+  private final List<String> requests = synchronizedList(new ArrayList<String>());
+
+  @Before
+  public void before() throws Exception {
+    cacheDir = Files.createTempDirectory("http-cache").toFile();
+    body = "{\"key\":\"JIR-1\"}";
+  }
+
+  @After
+  public void after() {
+    for (final File file : cacheDir.listFiles()) {
+      file.delete();
+    }
+    cacheDir.delete();
+  }
+
+  @Test
+  public void testThatNotModifiedResponseIsTakenFromCacheBetweenClients() throws Exception {
+    assertThat(createClient().get(URL).get()) //
+        .isEqualTo(body);
+    assertThat(createClient().get(URL).get()) //
+        .isEqualTo(body);
+
+    assertThat(requests) //
+        .containsExactly("200", "304");
+  }
+
+  @Test
+  public void testThatModifiedResponseIsFetchedAgain() throws Exception {
+    assertThat(createClient().get(URL).get()) //
+        .isEqualTo(body);
+    body = "{\"key\":\"JIR-1\",\"changed\":true}";
+    assertThat(createClient().get(URL).get()) //
+        .isEqualTo(body);
+    assertThat(createClient().get(URL).get()) //
+        .isEqualTo(body);
+
+    assertThat(requests) //
+        .containsExactly("200", "200", "304");
+  }
+
+  @Test
+  public void testThatSameUrlIsRequestedOnceWhenRequestedAtSameTime() throws Exception {
+    final CountDownLatch responding = new CountDownLatch(1);
+    final RestClient client = createSlowClient(responding, new AtomicInteger(), new AtomicInteger());
+
+    final CompletableFuture<Optional<String>> first = client.getAsync(URL);
+    final CompletableFuture<Optional<String>> second = client.getAsync(URL);
+    responding.countDown();
+
+    assertThat(first.get().get()) //
+        .isEqualTo(body);
+    assertThat(second.get().get()) //
+        .isEqualTo(body);
+    assertThat(client.getAsync(URL).get().get()) //
+        .isEqualTo(body);
+    assertThat(requests) //
+        .containsExactly("200");
+  }
+
+  @Test
+  public void testThatRequestsToSameHostAreLimited() throws Exception {
+    final AtomicInteger inFlight = new AtomicInteger();
+    final AtomicInteger maxInFlight = new AtomicInteger();
+    final RestClient client =
+        createSlowClient(new CountDownLatch(0), inFlight, maxInFlight).withMaxRequestsPerHost(2);
+
+    final List<CompletableFuture<Optional<String>>> futures = newArrayList();
+    for (int i = 0; i < 10; i++) {
+      futures.add(client.getAsync(URL + "?page=" + i));
+    }
+    for (final CompletableFuture<Optional<String>> future : futures) {
+      assertThat(future.get().get()) //
+          .isEqualTo(body);
+    }
+
+    assertThat(requests) //
+        .hasSize(10);
+    assertThat(maxInFlight.get()) //
+        .isEqualTo(2);
+  }
+
+  /** Responds when the latch is released, after a while, and counts requests in flight. */
+  private RestClient createSlowClient(
+      final CountDownLatch responding,
+      final AtomicInteger inFlight,
+      final AtomicInteger maxInFlight) {
+    return new RestClient(1, MINUTES) {
+      @Override
+      protected HttpURLConnection openConnection(final URL url) throws Exception {
+        return new ServerMock(url) {
+          @Override
+          public InputStream getInputStream() throws IOException {
+            final int current = inFlight.incrementAndGet();
+            maxInFlight.accumulateAndGet(current, Math::max);
+            try {
+              responding.await();
+              Thread.sleep(50);
+            } catch (final InterruptedException e) {
+              throw new IOException(e);
+            } finally {
+              inFlight.decrementAndGet();
+            }
+            return super.getInputStream();
+          }
+        };
+      }
+    };
+  }
+
+  /** A new client, as in a new run, with an empty in memory cache. */
+  private RestClient createClient() {
+    return new RestClient(1, MINUTES) {
+      @Override
+      protected HttpURLConnection openConnection(final URL url) throws Exception {
+        return new ServerMock(url);
+      }
+    }.withHttpCache(cacheDir);
+  }
+
+  /** Responds with the body, and an <code>ETag</code> that is the hash of the body. */
+  private class ServerMock extends HttpURLConnection {
+    private Integer responseCode;
+
+    ServerMock(final URL url) {
+      super(url);
+    }
+
+    private String getEtag() {
+      return "\"" + body.hashCode() + "\"";
+    }
+
+    @Override
+    public int getResponseCode() throws IOException {
+      if (responseCode == null) {
+        responseCode = getEtag().equals(getRequestProperty("If-None-Match")) ? 304 : 200;
+        requests.add(Integer.toString(responseCode));
+      }
+      return responseCode;
+    }
+
+    @Override
+    public InputStream getInputStream() throws IOException {
+      if (getResponseCode() != 200) {
+        throw new IOException("No body");
+      }
+      return new ByteArrayInputStream(body.getBytes("UTF-8"));
+    }
+
+    @Override
+    public String getHeaderField(final String name) {
+      return "ETag".equals(name) ? getEtag() : null;
+    }
+
+    @Override
+    public void connect() throws IOException {}
+
+    @Override
+    public boolean usingProxy() {
+      return false;
+    }
+
+    @Override
+    public void disconnect() {}
+  }
+}
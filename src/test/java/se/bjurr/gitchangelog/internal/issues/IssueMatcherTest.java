@@ -0,0 +1,75 @@
+package se.bjurr.gitchangelog.internal.issues;
+
+import static java.util.Arrays.asList;
+import static java.util.regex.Pattern.compile;
+import static org.assertj.core.api.Assertions.assertThat;
+import static se.bjurr.gitchangelog.internal.issues.IssueMatcher.getRequiredPrefix;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.Test;
+import se.bjurr.gitchangelog.internal.settings.SettingsIssue;
+
+public class IssueMatcherTest {
+
+  @Test
+  public void testThatRequiredPrefixIsFound() {
+    assertThat(getRequiredPrefix("JIR-[0-9]+")).isEqualTo("JIR-");
+    assertThat(getRequiredPrefix("#([0-9]+)")).isEqualTo("#");
+    assertThat(getRequiredPrefix("#bug")).isEqualTo("#bug");
+    assertThat(getRequiredPrefix("INC([0-9]*)")).isEqualTo("INC");
+    assertThat(getRequiredPrefix("ABC?D")).isEqualTo("AB");
+    assertThat(getRequiredPrefix("AB*")).isEqualTo("A");
+    assertThat(getRequiredPrefix("AB{0,2}")).isEqualTo("A");
+    assertThat(getRequiredPrefix("AB+")).isEqualTo("AB");
+    assertThat(getRequiredPrefix("AB|CD")).isEqualTo("");
+    assertThat(getRequiredPrefix("(?i)jir-[0-9]+")).isEqualTo("");
+    assertThat(getRequiredPrefix("\\bJIR")).isEqualTo("");
+  }
+
+  @Test
+  public void testThatPatternsThatMatchAreCandidates() {
+    final List<SettingsIssue> issues = new ArrayList<>();
+    for (final String pattern :
+        asList("AB-[0-9]+", "#([0-9]+)", "AC?-x", "B+C", "[A-C]{2}", "A|C", "(?i)ab")) {
+      issues.add(new SettingsIssue(pattern, pattern, null, null));
+    }
+    final IssueMatcher issueMatcher = new IssueMatcher(issues);
+    final Random random = new Random(1);
+    for (int i = 0; i < 2000; i++) {
+      final StringBuilder message = new StringBuilder();
+      for (int c = random.nextInt(8); c > 0; c--) {
+        message.append("ABCab-x#1 ".charAt(random.nextInt(10)));
+      }
+      final List<SettingsIssue> candidates = issueMatcher.getCandidates(message.toString());
+      for (final SettingsIssue issue : issues) {
+        if (compile(issue.getPattern()).matcher(message).find()) {
+          assertThat(candidates).as(message + " " + issue.getPattern()).contains(issue);
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testThatOverlappingPrefixesAreFoundInOnePass() {
+    final List<SettingsIssue> issues = new ArrayList<>();
+    for (final String pattern : asList("ABAB-[0-9]+", "BAB", "AB", "ABA#", "CA+", "x")) {
+      issues.add(new SettingsIssue(pattern, pattern, null, null));
+    }
+    final IssueMatcher issueMatcher = new IssueMatcher(issues);
+    final Random random = new Random(2);
+    for (int i = 0; i < 2000; i++) {
+      final StringBuilder message = new StringBuilder();
+      for (int c = random.nextInt(12); c > 0; c--) {
+        message.append("ABC-#1x".charAt(random.nextInt(7)));
+      }
+      final List<SettingsIssue> candidates = issueMatcher.getCandidates(message.toString());
+      for (final SettingsIssue issue : issues) {
+        assertThat(candidates.contains(issue))
+            .as(message + " " + issue.getPattern())
+            .isEqualTo(message.toString().contains(getRequiredPrefix(issue.getPattern())));
+      }
+    }
+  }
+}
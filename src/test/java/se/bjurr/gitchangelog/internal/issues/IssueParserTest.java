@@ -0,0 +1,260 @@
+package se.bjurr.gitchangelog.internal.issues;
+
+import static java.util.Arrays.asList;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.google.common.base.Optional;
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Test;
+import se.bjurr.gitchangelog.api.exceptions.GitChangelogIntegrationException;
+import se.bjurr.gitchangelog.internal.git.model.GitCommit;
+import se.bjurr.gitchangelog.internal.integrations.cache.IssueCache;
+import se.bjurr.gitchangelog.internal.integrations.jira.JiraClient;
+import se.bjurr.gitchangelog.internal.integrations.jira.JiraClientFactory;
+import se.bjurr.gitchangelog.internal.integrations.jira.JiraIssue;
+import se.bjurr.gitchangelog.internal.model.ParsedIssue;
+import se.bjurr.gitchangelog.internal.settings.Settings;
+import se.bjurr.gitchangelog.internal.settings.SettingsIssue;
+import se.bjurr.gitchangelog.internal.settings.SettingsPatterns;
+
+public class IssueParserTest {
+
+  @After
+  public void after() {
+    JiraClientFactory.reset();
+  }
+
+  @Test
+  public void testThatParallelParsingGivesSameIssues() {
+    final Random random = new Random(1);
+    final List<GitCommit> commits = new ArrayList<>();
+    for (int i = 0; i < 2000; i++) {
+      final StringBuilder message = new StringBuilder("commit " + i);
+      for (int words = random.nextInt(4); words > 0; words--) {
+        message.append(" ");
+        message.append(asList("ABC-", "DEF-", "#", "x").get(random.nextInt(4)));
+        message.append(random.nextInt(50));
+      }
+      commits.add(
+          new GitCommit(
+              "author", "author@example.com", new Date(i * 1000L), message.toString(), "" + i, false));
+    }
+    final Settings settings = new Settings();
+    settings.setCustomIssues(
+        asList(
+            new SettingsIssue("Abc", "ABC-([0-9]+)", "http://abc/${PATTERN_GROUP_1}", null),
+            new SettingsIssue("Def", "DEF-[0-9]+", null, "${PATTERN_GROUP}"),
+            new SettingsIssue("Numbered", "#[0-9]+", null, null)));
+
+    final List<ParsedIssue> expected = new IssueParser(settings, commits).parseForIssues(false);
+    settings.setUseParallelIssueParsing(true);
+    final List<ParsedIssue> actual = new IssueParser(settings, commits).parseForIssues(false);
+
+    assertThat(expected.size()).isGreaterThan(100);
+    assertThat(actual).hasSameSizeAs(expected);
+    for (int i = 0; i < expected.size(); i++) {
+      assertThat(actual.get(i).toString()).isEqualTo(expected.get(i).toString());
+      assertThat(actual.get(i).getLink()).isEqualTo(expected.get(i).getLink());
+      assertThat(actual.get(i).getTitle()).isEqualTo(expected.get(i).getTitle());
+      assertThat(actual.get(i).getGitCommits())
+          .containsExactlyElementsOf(expected.get(i).getGitCommits());
+    }
+  }
+
+  @Test
+  public void testThatIssuesAreTakenFromIntegrationCache() throws Exception {
+    final File cacheDir = Files.createTempDirectory("integration-cache").toFile();
+    final List<GitCommit> commits =
+        asList(
+            new GitCommit("author", "a@example.com", new Date(1000L), "JIR-1 first", "1", false),
+            new GitCommit("author", "a@example.com", new Date(2000L), "JIR-2 second", "2", false));
+    final Settings settings = new Settings();
+    settings.setJiraServer("https://server/jira");
+    settings.setIntegrationCacheDirectory(cacheDir.getAbsolutePath());
+    final JiraClientMock jiraClient = new JiraClientMock();
+    JiraClientFactory.setJiraClient(jiraClient);
+
+    final List<ParsedIssue> fetched = new IssueParser(settings, commits).parseForIssues(true);
+    assertThat(jiraClient.requests).isEqualTo(2);
+    assertThat(new File(cacheDir, "JIRA.json").exists()).isTrue();
+
+    final List<ParsedIssue> cached = new IssueParser(settings, commits).parseForIssues(true);
+    assertThat(jiraClient.requests).isEqualTo(2);
+
+    settings.setOffline(true);
+    settings.setJiraCacheTtlMinutes(0);
+    final List<ParsedIssue> offline = new IssueParser(settings, commits).parseForIssues(true);
+    assertThat(jiraClient.requests).isEqualTo(2);
+
+    assertThat(fetched).hasSize(2);
+    for (final List<ParsedIssue> issues : asList(cached, offline)) {
+      assertThat(issues).hasSameSizeAs(fetched);
+      for (int i = 0; i < fetched.size(); i++) {
+        assertThat(issues.get(i).getTitle().get()).isEqualTo("Title of " + fetched.get(i).getIssue());
+        assertThat(issues.get(i).getLabels()).containsExactly("label");
+      }
+    }
+  }
+
+  @Test
+  public void testThatIssuesAreFetchedOnceWhenIssueCacheIsShared() throws Exception {
+    final GitCommit first =
+        new GitCommit("author", "a@example.com", new Date(1000L), "JIR-1 first", "1", false);
+    final GitCommit second =
+        new GitCommit("author", "a@example.com", new Date(2000L), "JIR-1 JIR-2 second", "2", false);
+    final Settings settings = new Settings();
+    settings.setJiraServer("https://server/jira");
+    final JiraClientMock jiraClient = new JiraClientMock();
+    JiraClientFactory.setJiraClient(jiraClient);
+    final IssueCache issueCache = new IssueCache(settings);
+    final SettingsPatterns settingsPatterns = new SettingsPatterns(settings);
+
+    final List<ParsedIssue> firstIssues =
+        new IssueParser(settings, settingsPatterns, asList(first), issueCache)
+            .parseForIssues(true);
+    final List<ParsedIssue> secondIssues =
+        new IssueParser(settings, settingsPatterns, asList(first, second), issueCache)
+            .parseForIssues(true);
+
+    assertThat(jiraClient.requests).isEqualTo(2);
+    assertThat(firstIssues).hasSize(1);
+    assertThat(secondIssues).hasSize(2);
+    assertThat(secondIssues.get(0).getTitle().get()).isEqualTo("Title of JIR-1");
+    assertThat(secondIssues.get(0).getGitCommits()).containsExactly(first, second);
+  }
+
+  @Test
+  public void testThatNotFoundIssuesAreKeptInIntegrationCacheWithOwnTtl() throws Exception {
+    final File cacheDir = Files.createTempDirectory("integration-cache").toFile();
+    final List<GitCommit> commits =
+        asList(
+            new GitCommit("author", "a@example.com", new Date(1000L), "JIR-1 first", "1", false),
+            new GitCommit("author", "a@example.com", new Date(2000L), "JIR-404 second", "2", false));
+    final Settings settings = new Settings();
+    settings.setJiraServer("https://server/jira");
+    settings.setIntegrationCacheDirectory(cacheDir.getAbsolutePath());
+    final JiraClientMock jiraClient = new JiraClientMock();
+    JiraClientFactory.setJiraClient(jiraClient);
+
+    final List<ParsedIssue> fetched = new IssueParser(settings, commits).parseForIssues(true);
+    assertThat(jiraClient.requests).isEqualTo(2);
+
+    final List<ParsedIssue> cached = new IssueParser(settings, commits).parseForIssues(true);
+    assertThat(jiraClient.requests).isEqualTo(2);
+
+    settings.setIntegrationCacheNotFoundTtlMinutes(-1);
+    new IssueParser(settings, commits).parseForIssues(true);
+    assertThat(jiraClient.requests).isEqualTo(3);
+
+    for (final List<ParsedIssue> issues : asList(fetched, cached)) {
+      assertThat(issues).hasSize(2);
+      assertThat(issues.get(0).getTitle().get()).isEqualTo("Title of JIR-1");
+      assertThat(issues.get(1).getTitle().isPresent()).isFalse();
+    }
+  }
+
+  @Test
+  public void testThatParallelLookupsAreBoundedAndNotOnCommonPool() throws Exception {
+    final List<GitCommit> commits = new ArrayList<>();
+    for (int i = 0; i < 20; i++) {
+      commits.add(
+          new GitCommit(
+              "author", "a@example.com", new Date(i * 1000L), "JIR-" + i + " commit", "" + i, false));
+    }
+    final Settings settings = new Settings();
+    settings.setJiraServer("https://server/jira");
+    settings.setUseParallelIssueParsing(true);
+    settings.setIssueLookupsInParallel(3);
+    final SlowJiraClientMock jiraClient = new SlowJiraClientMock();
+    JiraClientFactory.setJiraClient(jiraClient);
+
+    final List<ParsedIssue> issues = new IssueParser(settings, commits).parseForIssues(true);
+
+    assertThat(issues).hasSize(20);
+    assertThat(jiraClient.threads).hasSize(20);
+    assertThat(jiraClient.maxConcurrent.get()).isGreaterThan(1).isLessThanOrEqualTo(3);
+    for (final String thread : jiraClient.threads) {
+      assertThat(thread).doesNotContain("ForkJoinPool");
+    }
+  }
+
+  private static class JiraClientMock extends JiraClient {
+    private int requests;
+
+    public JiraClientMock() {
+      super("https://server/jira");
+    }
+
+    @Override
+    public JiraClient withBasicCredentials(final String username, final String password) {
+      return this;
+    }
+
+    @Override
+    public JiraClient withTokenCredentials(final String token) {
+      return this;
+    }
+
+    @Override
+    public synchronized Optional<JiraIssue> getIssue(final String issue)
+        throws GitChangelogIntegrationException {
+      requests++;
+      if (issue.equals("JIR-404")) {
+        return Optional.absent();
+      }
+      return Optional.of(
+          new JiraIssue(
+              "Title of " + issue,
+              "Description",
+              getApi() + "/browse/" + issue,
+              issue,
+              "Bug",
+              new ArrayList<String>(),
+              asList("label")));
+    }
+  }
+
+  private static class SlowJiraClientMock extends JiraClient {
+    private final List<String> threads = new CopyOnWriteArrayList<>();
+    private final AtomicInteger concurrent = new AtomicInteger();
+    private final AtomicInteger maxConcurrent = new AtomicInteger();
+
+    public SlowJiraClientMock() {
+      super("https://server/jira");
+    }
+
+    @Override
+    public JiraClient withBasicCredentials(final String username, final String password) {
+      return this;
+    }
+
+    @Override
+    public JiraClient withTokenCredentials(final String token) {
+      return this;
+    }
+
+    @Override
+    public Optional<JiraIssue> getIssue(final String issue)
+        throws GitChangelogIntegrationException {
+      threads.add(Thread.currentThread().getName());
+      final int now = concurrent.incrementAndGet();
+      maxConcurrent.accumulateAndGet(now, Math::max);
+      try {
+        Thread.sleep(50);
+      } catch (final InterruptedException e) {
+        Thread.currentThread().interrupt();
+      } finally {
+        concurrent.decrementAndGet();
+      }
+      return Optional.absent();
+    }
+  }
+}
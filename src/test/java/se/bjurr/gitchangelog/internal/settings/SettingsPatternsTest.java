@@ -0,0 +1,39 @@
+package se.bjurr.gitchangelog.internal.settings;
+
+import static java.util.Arrays.asList;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.Test;
+
+public class SettingsPatternsTest {
+
+  @Test
+  public void testThatPatternsAreCompiledOnce() {
+    final Settings settings = new Settings();
+    settings.setJiraIssuePattern("JIRA-[0-9]+");
+    final SettingsPatterns settingsPatterns = new SettingsPatterns(settings);
+
+    final SettingsIssue jira = settingsPatterns.getIssues().get(0);
+    assertThat(settingsPatterns.getIssuePattern(jira))
+        .isSameAs(settingsPatterns.getIssuePattern(jira));
+    assertThat(settingsPatterns.getIgnoreCommitsIfMessageMatches())
+        .isSameAs(settingsPatterns.getIgnoreCommitsIfMessageMatches());
+    assertThat(settingsPatterns.getIgnoreCommitsIfMessageMatches().matcher("a\nb").matches())
+        .isFalse();
+  }
+
+  @Test
+  public void testThatSettingsAreTakenWhenCreated() {
+    final Settings settings = new Settings();
+    settings.setReadableTagName("/([^/]+?)$");
+    final SettingsPatterns settingsPatterns = new SettingsPatterns(settings);
+
+    final int issues = settingsPatterns.getIssues().size();
+
+    settings.setReadableTagName("changed");
+    settings.setCustomIssues(asList(new SettingsIssue("Bug", "bug-[0-9]+", null, null)));
+
+    assertThat(settingsPatterns.getReadableTagName().pattern()).isEqualTo("/([^/]+?)$");
+    assertThat(settingsPatterns.getIssues()).hasSize(issues);
+  }
+}
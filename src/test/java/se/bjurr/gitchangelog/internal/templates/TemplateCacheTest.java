@@ -0,0 +1,110 @@
+package se.bjurr.gitchangelog.internal.templates;
+
+import static com.google.common.base.Charsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.google.common.io.Files;
+import java.io.File;
+import java.io.StringWriter;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class TemplateCacheTest {
+  @Rule public TemporaryFolder folder = new TemporaryFolder();
+
+  private TemplateCache templateCache;
+
+  @Before
+  public void before() {
+    this.templateCache = new TemplateCache(10);
+  }
+
+  @Test
+  public void testThatSameContentIsCompiledOnce() {
+    final CompiledTemplate first = this.templateCache.getTemplateFromContent("{{name}}", null);
+    final CompiledTemplate second =
+        this.templateCache.getTemplateFromContent(new String("{{name}}"), null);
+    final CompiledTemplate other = this.templateCache.getTemplateFromContent("{{other}}", null);
+
+    assertThat(second).isSameAs(first);
+    assertThat(other).isNotSameAs(first);
+    assertThat(other.getContent()).isEqualTo("{{other}}");
+  }
+
+  @Test
+  public void testThatClasspathTemplateIsCompiledOnce() {
+    final String templatePath = "templatetest/testCommits.mustache";
+    final CompiledTemplate first = this.templateCache.getTemplateFromPath(templatePath);
+
+    assertThat(this.templateCache.getTemplateFromPath(templatePath)).isSameAs(first);
+  }
+
+  @Test
+  public void testThatChangedFileIsReadAgain() throws Exception {
+    final File file = this.folder.newFile("template.mustache");
+    Files.write("first", file, UTF_8);
+    file.setLastModified(1000000L);
+    final CompiledTemplate first = this.templateCache.getTemplateFromPath(file.getAbsolutePath());
+    assertThat(this.templateCache.getTemplateFromPath(file.getAbsolutePath())).isSameAs(first);
+
+    Files.write("second", file, UTF_8);
+    file.setLastModified(2000000L);
+    final CompiledTemplate second = this.templateCache.getTemplateFromPath(file.getAbsolutePath());
+
+    assertThat(second).isNotSameAs(first);
+    assertThat(second.getContent()).isEqualTo("second");
+  }
+
+  @Test
+  public void testThatFileChangedWithoutNewLastModifiedIsReadAgain() throws Exception {
+    final File file = this.folder.newFile("template.mustache");
+    Files.write("first", file, UTF_8);
+    final long lastModified = file.lastModified();
+    final CompiledTemplate first = this.templateCache.getTemplateFromPath(file.getAbsolutePath());
+
+    Files.write("other", file, UTF_8);
+    file.setLastModified(lastModified);
+    final CompiledTemplate second = this.templateCache.getTemplateFromPath(file.getAbsolutePath());
+
+    assertThat(second).isNotSameAs(first);
+    assertThat(second.getContent()).isEqualTo("other");
+  }
+
+  @Test
+  public void testThatOldFileWithSameLastModifiedAndLengthIsNotReadAgain() throws Exception {
+    final File file = this.folder.newFile("template.mustache");
+    Files.write("first", file, UTF_8);
+    file.setLastModified(1000000L);
+    final CompiledTemplate first = this.templateCache.getTemplateFromPath(file.getAbsolutePath());
+
+    Files.write("other", file, UTF_8);
+    file.setLastModified(1000000L);
+
+    assertThat(this.templateCache.getTemplateFromPath(file.getAbsolutePath())).isSameAs(first);
+  }
+
+  @Test
+  public void testThatTemplateIsCompiledAgainWhenPartialChanges() throws Exception {
+    final File file = this.folder.newFile("template.mustache");
+    Files.write("Partial: {{> partial}}", file, UTF_8);
+    final File partial = this.folder.newFile("partial.mustache");
+    Files.write("first", partial, UTF_8);
+    final CompiledTemplate first = this.templateCache.getTemplateFromPath(file.getAbsolutePath());
+    assertThat(render(first)).isEqualTo("Partial: first");
+    assertThat(this.templateCache.getTemplateFromPath(file.getAbsolutePath())).isSameAs(first);
+
+    Files.write("second", partial, UTF_8);
+    final CompiledTemplate second = this.templateCache.getTemplateFromPath(file.getAbsolutePath());
+
+    assertThat(second).isNotSameAs(first);
+    assertThat(render(second)).isEqualTo("Partial: second");
+  }
+
+  private String render(final CompiledTemplate template) throws Exception {
+    final StringWriter writer = new StringWriter();
+    template.getMustache().execute(writer, new Object()).flush();
+    return writer.toString();
+  }
+}
@@ -1,7 +1,10 @@
 package se.bjurr.gitchangelog.test;
 
 import static com.google.common.base.Stopwatch.createStarted;
+import static com.google.common.collect.Lists.newArrayList;
 import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static se.bjurr.gitchangelog.api.ChangelogRange.changelogRange;
 import static se.bjurr.gitchangelog.api.GitChangelogApi.gitChangelogApiBuilder;
 import static se.bjurr.gitchangelog.api.GitChangelogApiConstants.REF_MASTER;
 import static se.bjurr.gitchangelog.api.GitChangelogApiConstants.ZERO_COMMIT;
@@ -15,6 +18,7 @@ import org.eclipse.jgit.lib.ObjectId;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
+import se.bjurr.gitchangelog.api.ChangelogRange;
 import se.bjurr.gitchangelog.api.GitChangelogApi;
 import se.bjurr.gitchangelog.internal.git.GitRepo;
 import se.bjurr.gitchangelog.internal.git.GitRepoData;
@@ -86,4 +90,43 @@ public class LibPerformanceTest {
       }
     }
   }
+
+  @Test
+  public void testThatGimmitsBetweenTagsCanBeRenderedAtOnce() throws Exception {
+    if (this.gitRepo == null) {
+      return;
+    }
+    LOG.info("Running performance test, rendering all ranges at once");
+
+    final ObjectId fromId = this.gitRepo.getCommit(ZERO_COMMIT);
+    final ObjectId toId = this.gitRepo.getRef(REF_MASTER);
+    final GitRepoData gitRepoData =
+        this.gitRepo.getGitRepoData(fromId, toId, UNTAGGED_NAME, Optional.<String>absent());
+    LOG.info(this.stopwatch.elapsed(SECONDS) + "s. Done zero to master.");
+    final List<GitTag> allTags = gitRepoData.getGitTags();
+    final List<ChangelogRange> ranges = newArrayList();
+    for (final GitTag from : allTags) {
+      for (final GitTag to : allTags) {
+        if (from.getName().equals(to.getName())
+            || from.getName().equals(UNTAGGED_NAME)
+            || to.getName().equals(UNTAGGED_NAME)) {
+          continue;
+        }
+        ranges.add(changelogRange().withFromRef(from.getName()).withToRef(to.getName()));
+      }
+    }
+    LOG.info(this.stopwatch.elapsed(SECONDS) + "s. Rendering " + ranges.size() + " ranges.");
+    final List<String> rendered = this.gitChangelogApiBuilder.render(ranges);
+    LOG.info(this.stopwatch.elapsed(SECONDS) + "s.      Done");
+
+    final List<String> renderedOneByOne = newArrayList();
+    for (final ChangelogRange range : ranges) {
+      renderedOneByOne.add(
+          this.gitChangelogApiBuilder //
+              .withFromRef(range.getFromRef().get()) //
+              .withToRef(range.getToRef().get()) //
+              .render());
+    }
+    assertThat(rendered).isEqualTo(renderedOneByOne);
+  }
 }
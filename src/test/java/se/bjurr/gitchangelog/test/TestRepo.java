@@ -0,0 +1,118 @@
+package se.bjurr.gitchangelog.test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Date;
+import java.util.TimeZone;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.lib.CommitBuilder;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectInserter;
+import org.eclipse.jgit.lib.PersonIdent;
+import org.eclipse.jgit.lib.RefUpdate;
+import org.eclipse.jgit.lib.TreeFormatter;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.junit.rules.ExternalResource;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * A git repository in a temporary folder, created before each test and removed after it. Commits
+ * are made by the same author, at a given number of seconds since the epoch, so that tests can
+ * decide the order of the commits.
+ */
+public class TestRepo extends ExternalResource {
+  private final TemporaryFolder folder = new TemporaryFolder();
+  private File dir;
+  private Git git;
+  private ObjectInserter inserter;
+  private ObjectId emptyTree;
+  private RevWalk revWalk;
+
+  @Override
+  protected void before() throws Throwable {
+    this.folder.create();
+    this.dir = this.folder.newFolder("repo");
+    this.git = Git.init().setDirectory(this.dir).call();
+    this.inserter = this.git.getRepository().newObjectInserter();
+    this.emptyTree = this.inserter.insert(new TreeFormatter());
+    this.revWalk = new RevWalk(this.git.getRepository());
+  }
+
+  @Override
+  protected void after() {
+    this.revWalk.dispose();
+    this.inserter.release();
+    this.git.close();
+    this.folder.delete();
+  }
+
+  public File getDir() {
+    return this.dir;
+  }
+
+  public Git getGit() {
+    return this.git;
+  }
+
+  public RevWalk getRevWalk() {
+    return this.revWalk;
+  }
+
+  /** The id of the empty tree, that every commit from {@link #createCommit} has. */
+  public ObjectId getEmptyTree() {
+    return this.emptyTree;
+  }
+
+  /** A folder next to the repository, also removed after the test. */
+  public File newFolder() throws IOException {
+    return this.folder.newFolder();
+  }
+
+  /** Commits on the current branch, like <code>git commit</code>. */
+  public RevCommit commit(final String message, final long seconds) throws Exception {
+    final PersonIdent ident = ident(seconds);
+    return this.git
+        .commit() //
+        .setMessage(message) //
+        .setAuthor(ident) //
+        .setCommitter(ident) //
+        .call();
+  }
+
+  /**
+   * Only creates the commit, with the given parents, no branch is moved. Used to create histories
+   * that are hard to create with <code>git commit</code>, like several roots or skewed clocks.
+   */
+  public RevCommit createCommit(
+      final String message, final long seconds, final RevCommit... parents) throws Exception {
+    final PersonIdent ident = ident(seconds);
+    final CommitBuilder commit = new CommitBuilder();
+    commit.setTreeId(this.emptyTree);
+    commit.setParentIds(parents);
+    commit.setAuthor(ident);
+    commit.setCommitter(ident);
+    commit.setMessage(message);
+    final ObjectId id = this.inserter.insert(commit);
+    this.inserter.flush();
+    return this.revWalk.parseCommit(id);
+  }
+
+  public void tag(final String name, final RevCommit commit) throws Exception {
+    this.git.tag().setName(name).setObjectId(commit).call();
+  }
+
+  /** Points the branch, like <code>master</code>, at the commit. */
+  public void branch(final String name, final RevCommit commit) throws Exception {
+    final RefUpdate refUpdate = this.git.getRepository().updateRef(Constants.R_HEADS + name);
+    refUpdate.setNewObjectId(commit);
+    refUpdate.setForceUpdate(true);
+    refUpdate.update();
+  }
+
+  private static PersonIdent ident(final long seconds) {
+    return new PersonIdent(
+        "Tomas", "tomas@bjurr.se", new Date(seconds * 1000), TimeZone.getTimeZone("UTC"));
+  }
+}